@@ -93,7 +93,6 @@ public class ClientMain implements UniverseEngineEntryPoint, UniInputListener {
 	public static final float BG_G = 0.73f;
 	public static final float BG_B = 1f;
 
-	public final boolean limitFPS = false;
 	public boolean vsync = Config.get("vsync").equals("on");
 
 	private UniAWTDisplay display;
@@ -174,6 +173,11 @@ public class ClientMain implements UniverseEngineEntryPoint, UniInputListener {
 		} else {
 			StateManager.useTexRect(true);
 		}
+		// The "shader" block rendering needs GLSL:
+		if (Config.get("block_rendering").equals("shader") && !GLContext.getCapabilities().OpenGL20) {
+			System.err.println("WARNING: OpenGL 2.0 is not supported. Using immediate mode block rendering now.");
+			Config.set("block_rendering", "imm");
+		}
 		Log.out("GL_TEXTURE_2D enabled: " + glIsEnabled(GL_TEXTURE_2D));
 		Log.out("GL_TEXTURE_RECTANGLE_ARB enabled: " + glIsEnabled(GL_TEXTURE_RECTANGLE_ARB));
 		// Load all resources.
@@ -191,7 +195,8 @@ public class ClientMain implements UniverseEngineEntryPoint, UniInputListener {
 		}
 
 		Display.setVSyncEnabled(vsync);
-		loop.setDelay(limitFPS);
+		// Frame pacing is done by the frame limiter in displayUpdate():
+		loop.setDelay(false);
 		UniPrint.enabled = false;
 		WrappedMouse.giveDisplay(display);
 
@@ -236,6 +241,22 @@ public class ClientMain implements UniverseEngineEntryPoint, UniInputListener {
 	public void displayUpdate() {
 		display.update();
 		PerfMonitor.stopProfile("RENDER");
+		int maxFPS = getMaxFPS();
+		if (maxFPS > 0) {
+			Display.sync(maxFPS);
+		}
+	}
+
+	/**
+	 * @return the frame limit from the "max_fps" config entry,
+	 * or 0, if the frame rate is not limited.
+	 */
+	public int getMaxFPS() {
+		try {
+			return Math.max(0, Integer.parseInt(Config.get("max_fps")));
+		} catch (NumberFormatException e) {
+			return 0;
+		}
 	}
 
 	public void setScreen(Screen newscreen) {
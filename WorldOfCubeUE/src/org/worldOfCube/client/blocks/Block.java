@@ -27,24 +27,20 @@ import static org.lwjgl.opengl.GL11.glColor3f;
 import static org.lwjgl.opengl.GL11.glEnd;
 import static org.lwjgl.opengl.GL11.glPopMatrix;
 import static org.lwjgl.opengl.GL11.glPushMatrix;
+import static org.lwjgl.opengl.GL11.glTexCoord2f;
 import static org.lwjgl.opengl.GL11.glTranslatef;
 import static org.lwjgl.opengl.GL11.glVertex2f;
 
 import java.awt.Color;
 
 import org.worldOfCube.client.logic.chunks.Chunk;
-import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.res.ResLoader;
-import org.worldOfCube.client.res.Sprite;
 import org.worldOfCube.client.util.Config;
-import org.worldOfCube.client.util.StateManager;
 import org.worldOfCube.client.util.Var;
+import org.worldOfCube.client.util.opengl.BlockVAO;
 
 public abstract class Block {
 
-	public static Rectangle[] collisions = new Rectangle[] {
-		new Rectangle(0, 0, ResLoader.BLOCK_SIZE, ResLoader.BLOCK_SIZE)
-	};
 	public static final float BACKGROUND_DARKNESS = 0.2f;
 	public static final float BG_DIVIDE = 1.5f;
 	public static float DRAW_SIZE = ResLoader.BLOCK_SIZE;
@@ -104,7 +100,14 @@ public abstract class Block {
 	 * removed or in other special cases.
 	 */
 	public void update() {
-		borderID = calculateBorder();
+		byte newBorderID = calculateBorder();
+		if (newBorderID != borderID) {
+			borderID = newBorderID;
+			// containsAlpha() may depend on the borderID:
+			if (c != null) {
+				c.invalidateVisibility();
+			}
+		}
 	}
 
 	/**
@@ -127,6 +130,13 @@ public abstract class Block {
 	 */
 	public abstract void renderBackground();
 
+	/**
+	 * @return the block texture used to render this block.
+	 * Used to build static geometry for whole chunks.
+	 * @see org.worldOfCube.client.res.ResLoader#getUVOffset(org.worldOfCube.client.res.ResLoader.Blocks, int)
+	 */
+	public abstract ResLoader.Blocks getBlockTex();
+
 	/**
 	 * Called, after a block got created.
 	 */
@@ -154,16 +164,15 @@ public abstract class Block {
 	}
 
 	/**
-	 * Standard collision rect array is "collisions".
-	 * @return a number of Rectangles, which represent the collidable
-	 * area of this specific block.
-	 * @see org.worldOfCube.client.blocks.Block#collisions
-	 * @see org.worldOfCube.client.logic.collision.Rectangle
+	 * Whether Entitys collide with this Block. A solid Block fills
+	 * its whole tile. Only foreground blocks are solid by default.
+	 * Chunks keep a bitmask of the solid Blocks, so this must not
+	 * change while the Block is in a Chunk.
+	 * @return whether this Block is solid.
+	 * @see org.worldOfCube.client.logic.chunks.ChunkManager#anySolid(int, int, int, int)
 	 */
-	public Rectangle[] getCollisionRects() {
-		collisions[0].x = (c.getX() * c.getSize() + x) * ResLoader.BLOCK_SIZE;
-		collisions[0].y = (c.getY() * c.getSize() + y) * ResLoader.BLOCK_SIZE;
-		return collisions;
+	public boolean isSolid() {
+		return foreground;
 	}
 
 	/**
@@ -191,10 +200,12 @@ public abstract class Block {
 	}
 
 	/**
-	 * Internal help-method to render a Block with a given sprite.
-	 * @param sprite the sprite, which is a representation of this block.
+	 * Internal help-method to render a Block with a given block texture.
+	 * <p>The block atlas has to be bound already.</p>
+	 * @param tex the block texture, which is a representation of this block.
+	 * @see org.worldOfCube.client.res.ResLoader#bindBlockAtlas()
 	 */
-	protected void renderIntern(Sprite sprite) {
+	protected void renderIntern(ResLoader.Blocks tex) {
 		boolean newRendering = Config.get("block_rendering").equals("vao");
 		glPushMatrix();
 		glTranslatef(
@@ -205,17 +216,19 @@ public abstract class Block {
 		Var.col3 = c.getLight((byte)(x+1), (byte)(y+1), true);
 		Var.col4 = c.getLight(x, (byte)(y+1), true);
 
-		renderSpriteIntern(sprite, newRendering);
+		renderSpriteIntern(tex, newRendering);
 
 		glPopMatrix();
 	}
 
 	/**
-	 * Internal help-method to render a Block with a given sprite as background block.
-	 * @param sprite the sprite, which is a representation of this block.
+	 * Internal help-method to render a Block with a given block texture as background block.
+	 * <p>The block atlas has to be bound already.</p>
+	 * @param tex the block texture, which is a representation of this block.
+	 * @see org.worldOfCube.client.res.ResLoader#bindBlockAtlas()
 	 */
-	protected void renderBackgroundIntern(Sprite sprite) {
-		boolean newRendering = Config.get("block_rendering").equals("new");
+	protected void renderBackgroundIntern(ResLoader.Blocks tex) {
+		boolean newRendering = Config.get("block_rendering").equals("vao");
 		glPushMatrix();
 		glTranslatef(x * ResLoader.BLOCK_SIZE,
 					y * ResLoader.BLOCK_SIZE, 0f);
@@ -224,61 +237,52 @@ public abstract class Block {
 		Var.col3 = Math.min(1f, c.getLight((byte)(x+1), (byte)(y+1), true)) / BG_DIVIDE;
 		Var.col4 = Math.min(1f, c.getLight(x, (byte)(y+1), true)) / BG_DIVIDE;
 
-		renderSpriteIntern(sprite, newRendering);
+		renderSpriteIntern(tex, newRendering);
 
 		glPopMatrix();
 	}
 
 	/**
-	 * Internal method to render a sprite with a given "techneque".
-	 * @param sprite which sprite to use for rendering.
+	 * Internal method to render a block texture with a given "techneque".
+	 * <p>Unlit blocks are drawn with the FILLED sprite of the same
+	 * block texture in black, so the bound atlas never has to be
+	 * switched inside the world rendering.</p>
+	 * @param tex which block texture to use for rendering.
 	 * @param vao whether to render this block as vao, or not
 	 */
-	private void renderSpriteIntern(Sprite sprite, boolean vao) {
+	private void renderSpriteIntern(ResLoader.Blocks tex, boolean vao) {
+		boolean lit = containsAlpha() || Var.col1 != 0f || Var.col2 != 0f || Var.col3 != 0f || Var.col4 != 0f;
+		int tileType = lit ? borderID : ResLoader.TileTypes.FILLED.ordinal();
 		if (!vao) {
-			if (containsAlpha() || Var.col1 != 0f || Var.col2 != 0f || Var.col3 != 0f || Var.col4 != 0f) {
-				sprite.bind();
-				glBegin(GL_QUADS);
-				{
-					glColor3f(Var.col1, Var.col1, Var.col1);
-					sprite.glTexCoord(0);
-					glVertex2f(0f, 0f);
-
-					glColor3f(Var.col2, Var.col2, Var.col2);
-					sprite.glTexCoord(1);
-					glVertex2f(DRAW_SIZE, 0f);
-
-					glColor3f(Var.col3, Var.col3, Var.col3);
-					sprite.glTexCoord(2);
-					glVertex2f(DRAW_SIZE, DRAW_SIZE);
-
-					glColor3f(Var.col4, Var.col4, Var.col4);
-					sprite.glTexCoord(3);
-					glVertex2f(0f, DRAW_SIZE);
-				}
-				glEnd();
-			} else {
-				glColor3f(0f, 0f, 0f);
-				StateManager.bindTexture(null);
-				glBegin(GL_QUADS);
-				{
-					glVertex2f(0f, 0f);
-					glVertex2f(DRAW_SIZE, 0f);
-					glVertex2f(DRAW_SIZE, DRAW_SIZE);
-					glVertex2f(0f, DRAW_SIZE);
-				}
-				glEnd();
+			float[] uvs = ResLoader.getBlockUVs();
+			int off = ResLoader.getUVOffset(tex, tileType);
+			float u = uvs[off];
+			float v = uvs[off + 1];
+			float s = uvs[off + 2];
+			float t = uvs[off + 3];
+			glBegin(GL_QUADS);
+			{
+				glColor3f(Var.col1, Var.col1, Var.col1);
+				glTexCoord2f(u, v);
+				glVertex2f(0f, 0f);
+
+				glColor3f(Var.col2, Var.col2, Var.col2);
+				glTexCoord2f(s, v);
+				glVertex2f(DRAW_SIZE, 0f);
+
+				glColor3f(Var.col3, Var.col3, Var.col3);
+				glTexCoord2f(s, t);
+				glVertex2f(DRAW_SIZE, DRAW_SIZE);
+
+				glColor3f(Var.col4, Var.col4, Var.col4);
+				glTexCoord2f(u, t);
+				glVertex2f(0f, DRAW_SIZE);
 			}
+			glEnd();
 		} else {
-			if (containsAlpha() || Var.col1 != 0f || Var.col2 != 0f || Var.col3 != 0f || Var.col4 != 0f) {
-				sprite.bind();
-				ResLoader.getBlockRenderer(borderID).setColor(Var.col1, Var.col2, Var.col3, Var.col4);
-				ResLoader.getBlockRenderer(borderID).render();
-			} else {
-				StateManager.bindTexture(null);
-				ResLoader.getBlockRenderer(borderID).setColor(0f, 0f, 0f, 0f);
-				ResLoader.getBlockRenderer(borderID).render();
-			}
+			BlockVAO renderer = ResLoader.getBlockRenderer(tex, tileType);
+			renderer.setColor(Var.col1, Var.col2, Var.col3, Var.col4);
+			renderer.render();
 		}
 	}
 
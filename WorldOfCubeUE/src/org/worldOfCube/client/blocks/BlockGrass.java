@@ -58,12 +58,17 @@ public class BlockGrass extends Block {
 
 	@Override
 	public void render() {
-		super.renderIntern(ResLoader.get(BLOCK_TEX, borderID));
+		super.renderIntern(BLOCK_TEX);
 	}
 
 	@Override
 	public void renderBackground() {
-		super.renderBackgroundIntern(ResLoader.get(BLOCK_TEX, borderID));
+		super.renderBackgroundIntern(BLOCK_TEX);
+	}
+
+	@Override
+	public Blocks getBlockTex() {
+		return BLOCK_TEX;
 	}
 
 	@Override
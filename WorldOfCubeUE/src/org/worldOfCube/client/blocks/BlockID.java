@@ -27,6 +27,15 @@ import org.worldOfCube.client.res.Sprite;
 
 public final class BlockID {
 
+	public static final char NONE = 0;
+	public static final char EARTH = 1;
+	public static final char GRASS = 2;
+	public static final char ROCK = 3;
+	public static final char LIGHTSTONE = 4;
+	public static final char TREEWOOD = 5;
+	public static final char LEAVES = 6;
+	public static final char WOOD = 7;
+
 	private BlockID() {
 		// TODO: Blocks: Add to ID parser.
 	}
@@ -42,14 +51,14 @@ public final class BlockID {
 	 */
 	public static Block idToBlock(char id, boolean foreground) {
 		switch (id) {
-		case 0: return null;
-		case 1: return new BlockEarth(foreground);
-		case 2: return new BlockGrass(foreground);
-		case 3: return new BlockRock(foreground);
-		case 4: return new BlockLightstone(foreground);
-		case 5: return new BlockTreewood(foreground);
-		case 6: return new BlockLeaves(foreground);
-		case 7: return new BlockWood(foreground);
+		case NONE: return null;
+		case EARTH: return new BlockEarth(foreground);
+		case GRASS: return new BlockGrass(foreground);
+		case ROCK: return new BlockRock(foreground);
+		case LIGHTSTONE: return new BlockLightstone(foreground);
+		case TREEWOOD: return new BlockTreewood(foreground);
+		case LEAVES: return new BlockLeaves(foreground);
+		case WOOD: return new BlockWood(foreground);
 		default: throw new IllegalArgumentException("Invalid Block ID: " + (int)id);
 		}
 	}
@@ -93,23 +102,23 @@ public final class BlockID {
 	 * @return a char representation of the Block a.k.a. BlockID.
 	 */
 	public static char blockToId(Block b) {
-		if (b == null) return 0;
+		if (b == null) return NONE;
 		if (b instanceof BlockEarth) {
-			return 1;
+			return EARTH;
 		} else if (b instanceof BlockGrass) {
-			return 2;
+			return GRASS;
 		} else if (b instanceof BlockRock) {
-			return 3;
+			return ROCK;
 		} else if (b instanceof BlockLightstone) {
-			return 4;
+			return LIGHTSTONE;
 		} else if (b instanceof BlockTreewood) {
-			return 5;
+			return TREEWOOD;
 		} else if (b instanceof BlockLeaves) {
-			return 6;
+			return LEAVES;
 		} else if (b instanceof BlockWood) {
-			return 7;
+			return WOOD;
 		}
-		return 0;
+		return NONE;
 	}
 
 	/**
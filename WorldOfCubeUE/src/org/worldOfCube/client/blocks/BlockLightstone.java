@@ -78,12 +78,17 @@ public class BlockLightstone extends Block implements LightSource {
 
 	@Override
 	public void render() {
-		renderIntern(ResLoader.get(BLOCK_TEX, borderID));
+		renderIntern(BLOCK_TEX);
 	}
 
 	@Override
 	public void renderBackground() {
-		renderBackgroundIntern(ResLoader.get(BLOCK_TEX, borderID));
+		renderBackgroundIntern(BLOCK_TEX);
+	}
+
+	@Override
+	public Blocks getBlockTex() {
+		return BLOCK_TEX;
 	}
 
 	@Override
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.chunks;
+
+import org.worldOfCube.client.blocks.Block;
+import org.worldOfCube.client.blocks.BlockID;
+
+/**
+ * <p>Collects Block placements, to apply them all at once.</p>
+ * <p>{@link ChunkManager#addBlock(int, int, Block, boolean)} recalculates the
+ * borders of the Blocks around the position every time, so placing many
+ * overlapping Blocks (like the lines of a tree) recalculates the same borders
+ * over and over again. This buffer only stores the ID of the last Block placed at
+ * every position. {@link #apply()} then sets them chunk by chunk, and updates
+ * every affected Block exactly once, after all Blocks are set.</p>
+ * @author matheusdev
+ *
+ */
+public class BlockEditBuffer {
+
+	private final ChunkManager cm;
+	/** The placed BlockIDs per Chunk (index = chunky * size + chunkx), or null for untouched Chunks. */
+	private final char[][] edits;
+
+	/**
+	 * @param cm the ChunkManager to apply the edits to.
+	 */
+	public BlockEditBuffer(ChunkManager cm) {
+		this.cm = cm;
+		this.edits = new char[cm.size * cm.size][];
+	}
+
+	/**
+	 * Places a Block, when {@link #apply()} is called. Replaces previous
+	 * placements at the same position. Positions outside of the world are ignored.
+	 * @param totalx world-space x position.
+	 * @param totaly world-space y position.
+	 * @param id the BlockID of the Block to place.
+	 * @param foreground whether to place in foreground, or background.
+	 * @see BlockID
+	 */
+	public void place(int totalx, int totaly, char id, boolean foreground) {
+		if (totalx < 0 || totaly < 0) {
+			return;
+		}
+		int chunkx = totalx / cm.csize;
+		int chunky = totaly / cm.csize;
+		if (chunkx >= cm.size || chunky >= cm.size) {
+			return;
+		}
+		int i = chunky * cm.size + chunkx;
+		if (edits[i] == null) {
+			edits[i] = new char[cm.csize * cm.csize * 2];
+		}
+		edits[i][index(totalx - chunkx * cm.csize, totaly - chunky * cm.csize, foreground)] = id;
+	}
+
+	/**
+	 * Sets all placed Blocks, and then updates the borders of them and
+	 * their neighbors once. Clears the buffer afterwards.
+	 */
+	public void apply() {
+		int csize = cm.csize;
+		boolean[][] dirty = new boolean[edits.length][];
+		for (int i = 0; i < edits.length; i++) {
+			char[] chunkEdits = edits[i];
+			if (chunkEdits == null) {
+				continue;
+			}
+			int chunkx = i % cm.size;
+			int chunky = i / cm.size;
+			Chunk c = cm.getChunk(chunkx, chunky);
+			if (c != null) {
+				for (int by = 0; by < csize; by++) {
+					for (int bx = 0; bx < csize; bx++) {
+						boolean placed = place(c, chunkEdits, bx, by, true);
+						placed |= place(c, chunkEdits, bx, by, false);
+						if (placed) {
+							markDiamond(dirty, chunkx * csize + bx, chunky * csize + by);
+						}
+					}
+				}
+			}
+			edits[i] = null;
+		}
+		for (int i = 0; i < dirty.length; i++) {
+			if (dirty[i] == null) {
+				continue;
+			}
+			Chunk c = cm.getChunk(i % cm.size, i / cm.size);
+			if (c == null) {
+				continue;
+			}
+			for (int by = 0; by < csize; by++) {
+				for (int bx = 0; bx < csize; bx++) {
+					if (dirty[i][by * csize + bx]) {
+						c.updateLocalBlock(bx, by, true);
+						c.updateLocalBlock(bx, by, false);
+					}
+				}
+			}
+		}
+	}
+
+	private boolean place(Chunk c, char[] chunkEdits, int bx, int by, boolean foreground) {
+		char id = chunkEdits[index(bx, by, foreground)];
+		if (id == BlockID.NONE) {
+			return false;
+		}
+		c.setLocalBlock((byte) bx, (byte) by, BlockID.idToBlock(id, foreground), foreground);
+		return true;
+	}
+
+	/**
+	 * Marks the same positions dirty, which {@link Chunk#updateDiamond(int, int)} would update.
+	 */
+	private void markDiamond(boolean[][] dirty, int totalx, int totaly) {
+		mark(dirty, totalx, totaly);
+		mark(dirty, totalx - 1, totaly);
+		mark(dirty, totalx + 1, totaly);
+		mark(dirty, totalx, totaly - 1);
+		mark(dirty, totalx, totaly + 1);
+	}
+
+	private void mark(boolean[][] dirty, int totalx, int totaly) {
+		int total = cm.size * cm.csize;
+		if (totalx < 0 || totaly < 0 || totalx >= total || totaly >= total) {
+			return;
+		}
+		int chunkx = totalx / cm.csize;
+		int chunky = totaly / cm.csize;
+		int i = chunky * cm.size + chunkx;
+		if (dirty[i] == null) {
+			dirty[i] = new boolean[cm.csize * cm.csize];
+		}
+		dirty[i][(totaly - chunky * cm.csize) * cm.csize + (totalx - chunkx * cm.csize)] = true;
+	}
+
+	private int index(int bx, int by, boolean foreground) {
+		return ((by * cm.csize + bx) << 1) | (foreground ? 0 : 1);
+	}
+
+}
@@ -21,23 +21,35 @@
  */
 package org.worldOfCube.client.logic.chunks;
 
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.glBegin;
+import static org.lwjgl.opengl.GL11.glColor3f;
+import static org.lwjgl.opengl.GL11.glEnd;
 import static org.lwjgl.opengl.GL11.glPopMatrix;
 import static org.lwjgl.opengl.GL11.glPushMatrix;
+import static org.lwjgl.opengl.GL11.glTexCoord2f;
 import static org.lwjgl.opengl.GL11.glTranslatef;
+import static org.lwjgl.opengl.GL11.glVertex2f;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 
+import org.lwjgl.BufferUtils;
 import org.matheusdev.util.matrix.matrix2.MatrixN2f;
 import org.matheusdev.util.matrix.matrix3.MatrixN3o;
 import org.worldOfCube.client.blocks.Block;
 import org.worldOfCube.client.blocks.BlockEarth;
+import org.worldOfCube.client.blocks.BlockID;
 import org.worldOfCube.client.blocks.BlockRock;
 import org.worldOfCube.client.logic.chunks.generation.Generator;
 import org.worldOfCube.client.logic.chunks.light.LightSource;
 import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.res.ResLoader;
 import org.worldOfCube.client.util.Rand;
+import org.worldOfCube.client.util.opengl.ChunkMesh;
+import org.worldOfCube.client.util.opengl.LightTexture;
 
 public class Chunk {
 
@@ -47,16 +59,59 @@ public class Chunk {
 	public static final int FRONT = 0;
 	public static final int BACK = 1;
 
+	/*
+	 * Flags of the visibility mask:
+	 * VIS_FRONT: the foreground Block is drawn.
+	 * VIS_BACK: the background Block is drawn (it's not covered).
+	 * VIS_OPAQUE: the top-most drawn Block has no alpha, so the
+	 * tile can be drawn as plain black quad, when it is unlit.
+	 */
+	private static final byte VIS_FRONT = 1;
+	private static final byte VIS_BACK = 2;
+	private static final byte VIS_OPAQUE = 4;
+
 	private ChunkManager chunkManager;
 	private int x;
 	private int y;
 	private boolean created = false;
 	private MatrixN3o<Block> blocks;
+	/*
+	 * Bitmasks of the Blocks in this Chunk:
+	 * solid: the solid foreground Blocks.
+	 * anyFront: all foreground Blocks.
+	 * anyBack: all background Blocks.
+	 * Every row of the Chunk takes maskWords longs, bit x of row y
+	 * is bit (x & 63) of mask[y * maskWords + (x >> 6)].
+	 */
+	private final int maskWords;
+	private final long[] solid;
+	private final long[] anyFront;
+	private final long[] anyBack;
 	private MatrixN2f lightBuffer0;
 	private MatrixN2f lightBuffer1;
 	private MatrixN2f lightFront;
 	private MatrixN2f lightBack;
 	private List<LightSource> lights = new ArrayList<LightSource>(0);
+	private byte[] visibility;
+	private boolean visibilityDirty = true;
+	private boolean[] unlitBuffer0;
+	private boolean[] unlitBuffer1;
+	private boolean[] unlitFront;
+	private boolean[] unlitBack;
+	private boolean unlitChanged = false;
+	private volatile int unlitVersion = 0;
+	private int darkMeshVersion = -1;
+	private boolean[] darkMeshed;
+	private int[] darkMesh = new int[64];
+	private int darkMeshRects = 0;
+	private volatile int lightVersion = 0;
+	private int lightTexVersion = -1;
+	private ChunkMesh blockMesh;
+	private LightTexture lightTex;
+
+	// Scratch buffers for uploading to OpenGL, only used from the rendering Thread:
+	private static FloatBuffer meshData;
+	private static FloatBuffer lightData;
 
 	/**
 	 * Constructor.
@@ -72,7 +127,17 @@ public class Chunk {
 		lightBuffer1 = new MatrixN2f(chunkManager.csize, chunkManager.csize);
 		lightFront = lightBuffer0;
 		lightBack = lightBuffer1;
+		unlitBuffer0 = new boolean[chunkManager.csize * chunkManager.csize];
+		unlitBuffer1 = new boolean[chunkManager.csize * chunkManager.csize];
+		unlitFront = unlitBuffer0;
+		unlitBack = unlitBuffer1;
+		visibility = new byte[chunkManager.csize * chunkManager.csize];
+		darkMeshed = new boolean[chunkManager.csize * chunkManager.csize];
 		blocks = new MatrixN3o<Block>(chunkManager.csize, chunkManager.csize, 2);
+		maskWords = (chunkManager.csize + 63) >> 6;
+		solid = new long[maskWords * chunkManager.csize];
+		anyFront = new long[maskWords * chunkManager.csize];
+		anyBack = new long[maskWords * chunkManager.csize];
 	}
 
 	/**
@@ -96,31 +161,59 @@ public class Chunk {
 	/**
 	 * Creates all Blocks for this Chunk, using a Generator
 	 * and using Generator's isValid(int, int, int).
+	 * Only touches this Chunk, so Chunks can be created in parallel.
 	 * @param g the Generator to create this Chunk with.
 	 * @see org.worldOfCube.client.logic.chunks.generation.Generator#isValid(int, int, int)
+	 * @see org.worldOfCube.client.logic.chunks.generation.Generator#getChunkRandom(int, int)
 	 */
 	public void createBlocks(Generator g) {
+		Random rand = g.getChunkRandom(x, y);
+		int csize = chunkManager.csize;
+		boolean[] caves = g.generateCaves(x * csize, y * csize, csize, csize);
 		for (byte bx = 0; bx < chunkManager.csize; bx++) {
 			for (byte by = 0; by < chunkManager.csize; by++) {
 				int totalx = x * chunkManager.csize + bx;
 				int totaly = y * chunkManager.csize + by;
 				if (g.isValid(totalx, totaly)) {
-					if (g.isValid(totalx, totaly, EARTH_OFFSET + Rand.rangeInt(EARTH_SHUFFLE, g.getRand()))) {
-						if (!g.isCaveSet(totalx, totaly)) {
+					if (g.isValid(totalx, totaly, EARTH_OFFSET + Rand.rangeInt(EARTH_SHUFFLE, rand))) {
+						if (!caves[by * csize + bx]) {
 							blocks.set(new BlockRock(bx, by, this, true), bx, by, FRONT);
+							setBit(solid, bx, by, true);
+							setBit(anyFront, bx, by, true);
 						}
 						blocks.set(new BlockRock(bx, by, this, false), bx, by, BACK);
+						setBit(anyBack, bx, by, true);
 					} else {
-						if (!g.isCaveSet(totalx, totaly)) {
+						if (!caves[by * csize + bx]) {
 							blocks.set(new BlockEarth(bx, by, this, true), bx, by, FRONT);
+							setBit(solid, bx, by, true);
+							setBit(anyFront, bx, by, true);
 						}
 						blocks.set(new BlockEarth(bx, by, this, false), bx, by, BACK);
+						setBit(anyBack, bx, by, true);
 					}
 				}
 			}
 		}
 	}
 
+	/**
+	 * <p>Calculates a hash of all Blocks in this Chunk.</p>
+	 * <p>Two Chunks with the same Blocks at the same positions have
+	 * the same digest, so it can be used to check, whether
+	 * a seed still generates the same world.</p>
+	 * @return the digest of the Block IDs in foreground and background.
+	 */
+	public long digest() {
+		long hash = Rand.mix(x, y);
+		for (int by = 0; by < chunkManager.csize; by++) {
+			for (int bx = 0; bx < chunkManager.csize; bx++) {
+				hash = Rand.mix(hash, BlockID.blockToId(blocks.get(bx, by, FRONT)) << 16 | BlockID.blockToId(blocks.get(bx, by, BACK)));
+			}
+		}
+		return hash;
+	}
+
 	/**
 	 * Updates all Blocks in this Chunk.
 	 * This Method is used in the initialization of the
@@ -259,10 +352,100 @@ public class Chunk {
 		if (lightFront == lightBuffer0) {
 			lightFront = lightBuffer1;
 			lightBack = lightBuffer0;
+			unlitFront = unlitBuffer1;
+			unlitBack = unlitBuffer0;
 		} else {
 			lightFront = lightBuffer0;
 			lightBack = lightBuffer1;
+			unlitFront = unlitBuffer0;
+			unlitBack = unlitBuffer1;
+		}
+		if (unlitChanged) {
+			unlitChanged = false;
+			unlitVersion++;
 		}
+		lightVersion++;
+	}
+
+	/**
+	 * Recalculates which tiles are unlit (all four corner lights
+	 * are 0) from the light back buffer. Has to be called after
+	 * the light of this Chunk and its neighbors was calculated,
+	 * but before flipping the light buffers.
+	 * Unlit tiles are rendered as merged black quads.
+	 * @see #flipLightBuffers()
+	 * @see org.worldOfCube.client.logic.chunks.light.LightUpdater
+	 */
+	public void updateUnlitMask() {
+		int csize = chunkManager.csize;
+		boolean changed = false;
+		for (byte by = 0; by < csize; by++) {
+			for (byte bx = 0; bx < csize; bx++) {
+				int i = by * csize + bx;
+				unlitBack[i] = getLight(bx, by, false) == 0f
+						&& getLight((byte)(bx+1), by, false) == 0f
+						&& getLight((byte)(bx+1), (byte)(by+1), false) == 0f
+						&& getLight(bx, (byte)(by+1), false) == 0f;
+				changed |= unlitBack[i] != unlitFront[i];
+			}
+		}
+		unlitChanged = changed;
+	}
+
+	/**
+	 * Marks the visibility mask of this Chunk as outdated.
+	 * It will be recalculated before the Chunk is rendered the next time.
+	 * Has to be called, whenever a Block changes in a way, that
+	 * changes {@link Block#containsAlpha()}.
+	 */
+	public void invalidateVisibility() {
+		visibilityDirty = true;
+	}
+
+	/**
+	 * Recalculates the visibility mask, if it is outdated.
+	 * Background Blocks, which are covered by a foreground Block
+	 * without alpha, are not drawn.
+	 * @return whether the mask had to be recalculated.
+	 */
+	private boolean updateVisibility() {
+		if (!visibilityDirty) {
+			return false;
+		}
+		visibilityDirty = false;
+		int csize = chunkManager.csize;
+		for (int y = 0; y < csize; y++) {
+			for (int x = 0; x < csize; x++) {
+				Block fg = blocks.get(x, y, FRONT);
+				Block bg = blocks.get(x, y, BACK);
+				byte vis = 0;
+				if (fg != null) {
+					vis |= VIS_FRONT;
+					if (!fg.containsAlpha()) {
+						vis |= VIS_OPAQUE;
+					} else if (bg != null) {
+						vis |= VIS_BACK;
+					}
+				} else if (bg != null) {
+					vis |= VIS_BACK;
+					if (!bg.containsAlpha()) {
+						vis |= VIS_OPAQUE;
+					}
+				}
+				visibility[y * csize + x] = vis;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param x the chunk-space x position.
+	 * @param y the chunk-space y position.
+	 * @return whether the tile at (x, y) is drawn as plain black quad.
+	 */
+	private boolean isDark(int x, int y) {
+		int i = y * chunkManager.csize + x;
+		return (visibility[i] & VIS_OPAQUE) != 0 && unlitFront[i];
 	}
 
 	/**
@@ -304,14 +487,183 @@ public class Chunk {
 			}
 			if (foreground) {
 				blocks.set(b, x, y, FRONT);
+				boolean nowSolid = b != null && b.isSolid();
+				if (nowSolid != isSolid(x, y)) {
+					setBit(solid, x, y, nowSolid);
+					chunkManager.solidChanged(this.x * chunkManager.csize + x, this.y * chunkManager.csize + y);
+				}
+				setBit(anyFront, x, y, b != null);
 			} else {
 				blocks.set(b, x, y, BACK);
+				setBit(anyBack, x, y, b != null);
 			}
+			visibilityDirty = true;
 			return true;
 		}
 		return false;
 	}
 
+	/**
+	 * @param x the chunk-space x position. Must be valid.
+	 * @param y the chunk-space y position. Must be valid.
+	 * @return whether the foreground Block at (x, y) is {@link Block#isSolid() solid}.
+	 */
+	public boolean isSolid(int x, int y) {
+		return (solid[y * maskWords + (x >> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * Checks the solid bitmask of a part of a row with word operations.
+	 * @param y the chunk-space y position of the row. Must be valid.
+	 * @param x0 the first chunk-space x position. Must be valid.
+	 * @param x1 the last chunk-space x position (inclusive). Must be valid.
+	 * @return whether any foreground Block in the row from x0 to x1 is {@link Block#isSolid() solid}.
+	 */
+	public boolean anySolid(int y, int x0, int x1) {
+		return anyBit(solid, y * maskWords, x0, x1);
+	}
+
+	/**
+	 * @param x the chunk-space x position. Must be valid.
+	 * @param y the chunk-space y position. Must be valid.
+	 * @param foreground whether to look in foreground or background.
+	 * @return whether there is a Block at (x, y). Same as
+	 * <tt>getLocalBlock(x, y, foreground) != null</tt>, but without touching any Block.
+	 */
+	public boolean hasBlock(int x, int y, boolean foreground) {
+		return (getMask(foreground)[y * maskWords + (x >> 6)] & (1L << x)) != 0;
+	}
+
+	/**
+	 * @return the number of longs per row of the bitmasks, see {@link #emptyWord(int, int)}.
+	 */
+	public int getMaskWords() {
+		return maskWords;
+	}
+
+	/**
+	 * Bit b of the returned word stands for the tile at x = w * 64 + b.
+	 * @param y the chunk-space y position of the row. Must be valid.
+	 * @param w the index of the word in the row.
+	 * @return the tiles of the word, which have neither a foreground
+	 * nor a background Block.
+	 */
+	public long emptyWord(int y, int w) {
+		int i = y * maskWords + w;
+		return ~(anyFront[i] | anyBack[i]) & validBits(w);
+	}
+
+	/**
+	 * Bit b of the returned word stands for the tile at x = w * 64 + b.
+	 * @param y the chunk-space y position of the row. Must be valid.
+	 * @param w the index of the word in the row.
+	 * @return the tiles of the word, which have a foreground or background
+	 * Block directly left, right, above or below them, including Blocks
+	 * in the neighbor Chunks.
+	 */
+	public long surroundedWord(int y, int w) {
+		int csize = chunkManager.csize;
+		int i = y * maskWords + w;
+		long row = anyFront[i] | anyBack[i];
+		long near = row << 1 | row >>> 1;
+		// Carry the bits over the word borders:
+		if (w > 0) {
+			near |= (anyFront[i-1] | anyBack[i-1]) >>> 63;
+		}
+		if (w < maskWords - 1) {
+			near |= (anyFront[i+1] | anyBack[i+1]) << 63;
+		}
+		// The rows above and below:
+		near |= occupiedWord(y - 1, w) | occupiedWord(y + 1, w);
+		// The tiles of the Chunks to the left and right:
+		if (w == 0 && isOccupied(-1, y)) {
+			near |= 1L;
+		}
+		if (w == maskWords - 1 && isOccupied(csize, y)) {
+			near |= 1L << ((csize - 1) & 63);
+		}
+		return near & validBits(w);
+	}
+
+	/**
+	 * @return the word of the row y (which may lie in the Chunk above or
+	 * below) with the tiles, which have a foreground or background Block.
+	 */
+	private long occupiedWord(int y, int w) {
+		Chunk c = this;
+		int csize = chunkManager.csize;
+		if (y < 0 || y >= csize) {
+			int cy = y < 0 ? this.y - 1 : this.y + 1;
+			if (cy < 0 || cy >= chunkManager.size || (c = chunkManager.getChunk(x, cy)) == null) {
+				return 0L;
+			}
+			y = y < 0 ? y + csize : y - csize;
+		}
+		int i = y * maskWords + w;
+		return c.anyFront[i] | c.anyBack[i];
+	}
+
+	/**
+	 * @return whether the tile at (x, y) (which may lie in the Chunk to
+	 * the left or right) has a foreground or background Block.
+	 */
+	private boolean isOccupied(int x, int y) {
+		Chunk c = this;
+		int csize = chunkManager.csize;
+		if (x < 0 || x >= csize) {
+			int cx = x < 0 ? this.x - 1 : this.x + 1;
+			if (cx < 0 || cx >= chunkManager.size || (c = chunkManager.getChunk(cx, this.y)) == null) {
+				return false;
+			}
+			x = x < 0 ? x + csize : x - csize;
+		}
+		return c.hasBlock(x, y, true) || c.hasBlock(x, y, false);
+	}
+
+	/**
+	 * @return the bits of word w, which stand for tiles inside of this Chunk.
+	 */
+	private long validBits(int w) {
+		int bits = chunkManager.csize - (w << 6);
+		return bits >= 64 ? -1L : (1L << bits) - 1;
+	}
+
+	private long[] getMask(boolean foreground) {
+		return foreground ? anyFront : anyBack;
+	}
+
+	private void setBit(long[] mask, int x, int y, boolean set) {
+		int i = y * maskWords + (x >> 6);
+		if (set) {
+			mask[i] |= 1L << x;
+		} else {
+			mask[i] &= ~(1L << x);
+		}
+	}
+
+	/**
+	 * @return whether any bit from x0 to x1 (inclusive) of the row beginning at mask[row] is set.
+	 */
+	private static boolean anyBit(long[] mask, int row, int x0, int x1) {
+		int w0 = x0 >> 6;
+		int w1 = x1 >> 6;
+		// -1L << x sets the bits from x upwards, -1L >>> (63 - x) the bits up to x:
+		long first = -1L << x0;
+		long last = -1L >>> (63 - (x1 & 63));
+		if (w0 == w1) {
+			return (mask[row + w0] & first & last) != 0;
+		}
+		if ((mask[row + w0] & first) != 0) {
+			return true;
+		}
+		for (int w = w0 + 1; w < w1; w++) {
+			if (mask[row + w] != 0) {
+				return true;
+			}
+		}
+		return (mask[row + w1] & last) != 0;
+	}
+
 	/**
 	 * Returns a Block relative to the Chunk-coordinate system.
 	 * That means, this method called with (0, 0), would return
@@ -518,15 +870,137 @@ public class Chunk {
 			endx = Math.min(chunkManager.csize-1, endx);
 			endy = Math.min(chunkManager.csize-1, endy);
 
-			for (int x = beginx; x <= endx; x++) {
-				for (int y = beginy; y <= endy; y++) {
-					renderBlocksAt(x, y);
+			int version = unlitVersion;
+			if (updateVisibility() || version != darkMeshVersion) {
+				buildDarkMesh();
+				darkMeshVersion = version;
+			}
+			int csize = chunkManager.csize;
+			for (int y = beginy; y <= endy; y++) {
+				for (int x = beginx; x <= endx; x++) {
+					if (!darkMeshed[y * csize + x]) {
+						renderBlocksAt(x, y);
+					}
 				}
 			}
+			renderDarkMesh();
 		}
 		glPopMatrix();
 	}
 
+	/**
+	 * <p>Renders this Chunk with the "shader" block rendering techneque.</p>
+	 * <p>The Blocks are drawn from a static {@link ChunkMesh}, which is only
+	 * rebuilt, when Blocks change. The light is uploaded to a
+	 * {@link LightTexture} whenever the light buffers were flipped.</p>
+	 * <p>The {@link org.worldOfCube.client.util.opengl.BlockShader}
+	 * has to be active and the block atlas bound.</p>
+	 */
+	public void renderShaded() {
+		glPushMatrix();
+		{
+			glTranslatef(x*chunkManager.csize*ResLoader.BLOCK_SIZE,
+					y*chunkManager.csize*ResLoader.BLOCK_SIZE, 0f);
+
+			if (updateVisibility() || blockMesh == null) {
+				buildBlockMesh();
+			}
+			int version = lightVersion;
+			if (version != lightTexVersion) {
+				uploadLight();
+				lightTexVersion = version;
+			}
+			lightTex.bind();
+			blockMesh.render();
+		}
+		glPopMatrix();
+	}
+
+	/**
+	 * Rebuilds the static geometry of all visible Blocks
+	 * of this Chunk, using the visibility mask.
+	 */
+	private void buildBlockMesh() {
+		int csize = chunkManager.csize;
+		int floats = csize * csize * 2 * 4 * ChunkMesh.FLOATS_PER_VERTEX;
+		if (meshData == null || meshData.capacity() < floats) {
+			meshData = BufferUtils.createFloatBuffer(floats);
+		}
+		meshData.clear();
+		for (int y = 0; y < csize; y++) {
+			for (int x = 0; x < csize; x++) {
+				byte vis = visibility[y * csize + x];
+				if ((vis & VIS_BACK) != 0) {
+					putBlockQuad(meshData, blocks.get(x, y, BACK), x, y, 1f);
+				}
+				if ((vis & VIS_FRONT) != 0) {
+					putBlockQuad(meshData, blocks.get(x, y, FRONT), x, y, 0f);
+				}
+			}
+		}
+		meshData.flip();
+		if (blockMesh == null) {
+			blockMesh = new ChunkMesh();
+		}
+		blockMesh.upload(meshData);
+	}
+
+	private static void putBlockQuad(FloatBuffer buf, Block b, int x, int y, float layer) {
+		float[] uvs = ResLoader.getBlockUVs();
+		int off = ResLoader.getUVOffset(b.getBlockTex(), b.getBorderID());
+		float u = uvs[off];
+		float v = uvs[off + 1];
+		float s = uvs[off + 2];
+		float t = uvs[off + 3];
+		float x0 = x * ResLoader.BLOCK_SIZE;
+		float y0 = y * ResLoader.BLOCK_SIZE;
+		float x1 = x0 + ResLoader.BLOCK_SIZE;
+		float y1 = y0 + ResLoader.BLOCK_SIZE;
+		buf.put(x0).put(y0).put(u).put(v).put(layer);
+		buf.put(x1).put(y0).put(s).put(v).put(layer);
+		buf.put(x1).put(y1).put(s).put(t).put(layer);
+		buf.put(x0).put(y1).put(u).put(t).put(layer);
+	}
+
+	/**
+	 * Uploads the light of all block corners of this Chunk
+	 * (including the right and bottom corners, which belong
+	 * to the neighbor Chunks) to the light texture.
+	 */
+	private void uploadLight() {
+		int n = chunkManager.csize + 1;
+		if (lightData == null || lightData.capacity() < n * n) {
+			lightData = BufferUtils.createFloatBuffer(n * n);
+		}
+		lightData.clear();
+		for (int y = 0; y < n; y++) {
+			for (int x = 0; x < n; x++) {
+				lightData.put(getLight((byte) x, (byte) y, true));
+			}
+		}
+		lightData.flip();
+		if (lightTex == null) {
+			lightTex = new LightTexture(n);
+		}
+		lightTex.upload(lightData);
+	}
+
+	/**
+	 * Deletes the OpenGL objects used by the "shader" block rendering.
+	 * Has to be called from the rendering Thread.
+	 */
+	public void deleteRenderData() {
+		if (blockMesh != null) {
+			blockMesh.delete();
+			blockMesh = null;
+		}
+		if (lightTex != null) {
+			lightTex.delete();
+			lightTex = null;
+		}
+		lightTexVersion = -1;
+	}
+
 	/**
 	 * This renders a Block with OpenGL at (x, y).
 	 * If (x, y) are not valid positions, the method
@@ -535,25 +1009,102 @@ public class Chunk {
 	 * @param y
 	 */
 	public void renderBlocksAt(int x, int y) {
-		// If the Block in the front is not null, render it:
-		if (blocks.get(x, y, FRONT) != null) {
-			// If the Block in the front containsAlpha(), than the block behind is visible,
-			// and must be rendered first (behind).
-			if (blocks.get(x, y, FRONT).containsAlpha()) {
-				// If the Block in the back is not null, render him.
-				if (blocks.get(x, y, BACK) != null) {
-					blocks.get(x, y, BACK).renderBackground();
+		byte vis = visibility[y * chunkManager.csize + x];
+		// The Block in the back is only visible, if there is no Block in front,
+		// or the Block in front containsAlpha(). It must be rendered first (behind).
+		if ((vis & VIS_BACK) != 0) {
+			blocks.get(x, y, BACK).renderBackground();
+		}
+		if ((vis & VIS_FRONT) != 0) {
+			blocks.get(x, y, FRONT).render();
+		}
+	}
+
+	/**
+	 * Greedily merges all unlit tiles of this Chunk into as few
+	 * rectangles as possible: A rectangle is grown to the right as
+	 * long as there are unlit tiles, and then downwards, as long as
+	 * the whole next row is unlit.
+	 * Tiles covered by the mesh are remembered in "darkMeshed", so the
+	 * Block rendering skips exactly those tiles until the mesh is rebuilt.
+	 */
+	private void buildDarkMesh() {
+		int csize = chunkManager.csize;
+		for (int i = 0; i < darkMeshed.length; i++) {
+			darkMeshed[i] = false;
+		}
+		darkMeshRects = 0;
+		for (int y = 0; y < csize; y++) {
+			for (int x = 0; x < csize; x++) {
+				if (darkMeshed[y * csize + x] || !isDark(x, y)) {
+					continue;
+				}
+				int w = 1;
+				while (x + w < csize && !darkMeshed[y * csize + x + w] && isDark(x + w, y)) {
+					w++;
+				}
+				int h = 1;
+				grow:
+				while (y + h < csize) {
+					for (int ix = x; ix < x + w; ix++) {
+						if (darkMeshed[(y + h) * csize + ix] || !isDark(ix, y + h)) {
+							break grow;
+						}
+					}
+					h++;
 				}
+				for (int iy = y; iy < y + h; iy++) {
+					for (int ix = x; ix < x + w; ix++) {
+						darkMeshed[iy * csize + ix] = true;
+					}
+				}
+				addDarkRect(x, y, w, h);
 			}
-			// Render the block in foreground.
-			blocks.get(x, y, FRONT).render();
-		} else {
-			// If there is no Block in foreground, but a block in the background,
-			// we simply render that one.
-			if (blocks.get(x, y, BACK) != null) {
-				blocks.get(x, y, BACK).renderBackground();
+		}
+	}
+
+	private void addDarkRect(int x, int y, int w, int h) {
+		if (darkMeshRects * 4 + 4 > darkMesh.length) {
+			int[] newMesh = new int[darkMesh.length * 2];
+			System.arraycopy(darkMesh, 0, newMesh, 0, darkMesh.length);
+			darkMesh = newMesh;
+		}
+		int i = darkMeshRects * 4;
+		darkMesh[i] = x;
+		darkMesh[i + 1] = y;
+		darkMesh[i + 2] = x + w;
+		darkMesh[i + 3] = y + h;
+		darkMeshRects++;
+	}
+
+	/**
+	 * Renders the merged unlit rectangles of this Chunk as black quads.
+	 * The block atlas has to be bound, the quads sample
+	 * a single opaque texel of it, so no texture switch is needed.
+	 * @see #buildDarkMesh()
+	 */
+	private void renderDarkMesh() {
+		if (darkMeshRects == 0) {
+			return;
+		}
+		float[] uvs = ResLoader.getBlockUVs();
+		int off = ResLoader.getUVOffset(ResLoader.Blocks.ROCK, ResLoader.TileTypes.FILLED.ordinal());
+		float u = (uvs[off] + uvs[off + 2]) * 0.5f;
+		float v = (uvs[off + 1] + uvs[off + 3]) * 0.5f;
+		int bs = ResLoader.BLOCK_SIZE;
+
+		glColor3f(0f, 0f, 0f);
+		glBegin(GL_QUADS);
+		{
+			glTexCoord2f(u, v);
+			for (int i = 0; i < darkMeshRects * 4; i += 4) {
+				glVertex2f(darkMesh[i] * bs, darkMesh[i + 1] * bs);
+				glVertex2f(darkMesh[i + 2] * bs, darkMesh[i + 1] * bs);
+				glVertex2f(darkMesh[i + 2] * bs, darkMesh[i + 3] * bs);
+				glVertex2f(darkMesh[i] * bs, darkMesh[i + 3] * bs);
 			}
 		}
+		glEnd();
 	}
 
 	/**
@@ -570,10 +1121,11 @@ public class Chunk {
 	 * @return whether the position (bx, by) has a surrounding block in a diamond-shape.
 	 */
 	public boolean hasSurrounding(byte bx, byte by, boolean foreground) {
-		return getLocalBlock(bx+1, by, foreground) != null
-				|| getLocalBlock(bx-1, by, foreground) != null
-				|| getLocalBlock(bx, by+1, foreground) != null
-				|| getLocalBlock(bx, by-1, foreground) != null;
+		int csize = chunkManager.csize;
+		return (bx+1 < csize && hasBlock(bx+1, by, foreground))
+				|| (bx-1 >= 0 && hasBlock(bx-1, by, foreground))
+				|| (by+1 < csize && hasBlock(bx, by+1, foreground))
+				|| (by-1 >= 0 && hasBlock(bx, by-1, foreground));
 	}
 
 }
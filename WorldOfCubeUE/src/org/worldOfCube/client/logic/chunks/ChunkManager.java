@@ -21,12 +21,19 @@
  */
 package org.worldOfCube.client.logic.chunks;
 
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.worldOfCube.Log;
 import org.worldOfCube.client.blocks.Block;
 import org.worldOfCube.client.logic.chunks.generation.Generator;
 import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.res.ResLoader;
+import org.worldOfCube.client.util.Config;
+import org.worldOfCube.client.util.Rand;
 import org.worldOfCube.client.util.Timer;
+import org.worldOfCube.client.util.WorkerPool;
+import org.worldOfCube.client.util.opengl.BlockShader;
 
 public class ChunkManager {
 
@@ -37,9 +44,14 @@ public class ChunkManager {
 
 	protected Chunk[][] chunks;
 
-	private long loaded;
+	private final AtomicLong loaded = new AtomicLong();
 	private long toLoad = 1;
 
+	// The world-space bounds of the solid Blocks changed since the last takeSolidChanges():
+	private final Object solidChangeLock = new Object();
+	private boolean solidChanged = false;
+	private int solidMinx, solidMiny, solidMaxx, solidMaxy;
+
 	/**
 	 * Constructor. This will not create any instance of Chunks.
 	 * This will only Initialize the size of the Arrays and
@@ -60,6 +72,48 @@ public class ChunkManager {
 		return size;
 	}
 
+	/**
+	 * Called by Chunks, whenever a Block became solid or non-solid.
+	 * Remembers the bounds of all changes, for {@link #takeSolidChanges(int[])}.
+	 * @param totalx world-space x position.
+	 * @param totaly world-space y position.
+	 */
+	void solidChanged(int totalx, int totaly) {
+		synchronized (solidChangeLock) {
+			if (solidChanged) {
+				solidMinx = Math.min(solidMinx, totalx);
+				solidMiny = Math.min(solidMiny, totaly);
+				solidMaxx = Math.max(solidMaxx, totalx);
+				solidMaxy = Math.max(solidMaxy, totaly);
+			} else {
+				solidChanged = true;
+				solidMinx = solidMaxx = totalx;
+				solidMiny = solidMaxy = totaly;
+			}
+		}
+	}
+
+	/**
+	 * Gets and forgets the bounds of all solid Blocks changed since the last call,
+	 * for example to wake up things resting on Blocks.
+	 * @param bounds an array of at least 4 elements, which is filled with the
+	 * world-space bounds {minx, miny, maxx, maxy} (inclusive), if anything changed.
+	 * @return whether any solid Block changed.
+	 */
+	public boolean takeSolidChanges(int[] bounds) {
+		synchronized (solidChangeLock) {
+			if (!solidChanged) {
+				return false;
+			}
+			solidChanged = false;
+			bounds[0] = solidMinx;
+			bounds[1] = solidMiny;
+			bounds[2] = solidMaxx;
+			bounds[3] = solidMaxy;
+			return true;
+		}
+	}
+
 	public int getChunkSize() {
 		return csize;
 	}
@@ -86,26 +140,54 @@ public class ChunkManager {
 	 * It also increases the "loaded" counter.
 	 */
 	public void initChunks() {
-		loaded = 0;
+		loaded.set(0);
 		for (int x = 0; x < size; x++) {
 			for (int y = 0; y < size; y++) {
 				chunks[x][y] = new Chunk(x, y, this);
-				loaded += 1;
+				loaded.incrementAndGet();
 			}
 		}
 	}
 
 	/**
 	 * calls {@link Chunk#create(Generator)} on each Chunk in the
-	 * Array. It also increases the "loaded" counter.
+	 * Array, in parallel on the {@link WorkerPool}.
+	 * It also increases the "loaded" counter.
 	 * @param g
 	 */
 	private void createChunks(Generator g) {
-		loaded = 0;
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				chunks[x][y].create(g);
-				loaded += 1;
+		loaded.set(0);
+		WorkerPool.get().invoke(new CreateChunksTask(g, 0, size*size));
+	}
+
+	/**
+	 * Creates the Chunks with the indices [begin, end) (index = y * size + x),
+	 * splitting the range in halves, until it is small enough.
+	 */
+	private class CreateChunksTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 4;
+
+		private final Generator g;
+		private final int begin;
+		private final int end;
+
+		CreateChunksTask(Generator g, int begin, int end) {
+			this.g = g;
+			this.begin = begin;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= THRESHOLD) {
+				for (int i = begin; i < end; i++) {
+					chunks[i % size][i / size].create(g);
+					loaded.incrementAndGet();
+				}
+			} else {
+				int mid = (begin + end) >>> 1;
+				invokeAll(new CreateChunksTask(g, begin, mid), new CreateChunksTask(g, mid, end));
 			}
 		}
 	}
@@ -126,9 +208,37 @@ public class ChunkManager {
 		beginy = Math.max(0, beginy);
 		endx = Math.min(size, endx);
 		endy = Math.min(size, endy);
-		for (int x = beginx; x < endx; x++) {
-			for (int y = beginy; y < endy; y++) {
-				chunks[x][y].render(viewport);
+		// All blocks live on the same atlas, so it's bound once for all chunks:
+		ResLoader.bindBlockAtlas();
+		if (Config.get("block_rendering").equals("shader")) {
+			// The light textures hold one value per block corner:
+			BlockShader.begin(csize + 1);
+			for (int x = beginx; x < endx; x++) {
+				for (int y = beginy; y < endy; y++) {
+					chunks[x][y].renderShaded();
+				}
+			}
+			BlockShader.end();
+		} else {
+			for (int x = beginx; x < endx; x++) {
+				for (int y = beginy; y < endy; y++) {
+					chunks[x][y].render(viewport);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Deletes the OpenGL objects of all Chunks.
+	 * Has to be called from the rendering Thread.
+	 * @see Chunk#deleteRenderData()
+	 */
+	public void deleteRenderData() {
+		for (int x = 0; x < size; x++) {
+			for (int y = 0; y < size; y++) {
+				if (chunks[x][y] != null) {
+					chunks[x][y].deleteRenderData();
+				}
 			}
 		}
 	}
@@ -301,6 +411,47 @@ public class ChunkManager {
 		return null;
 	}
 
+	/**
+	 * <p>Checks, whether any foreground Block in the given area of
+	 * world-block-space positions is {@link Block#isSolid() solid}.</p>
+	 * <p>Uses the solid bitmasks of the Chunks, so it needs no Block
+	 * objects and creates no garbage. Positions outside of the world
+	 * are not solid.</p>
+	 * @param x0 the first world-block-space x position.
+	 * @param y0 the first world-block-space y position.
+	 * @param x1 the last world-block-space x position (inclusive).
+	 * @param y1 the last world-block-space y position (inclusive).
+	 * @return whether any Block in the area is solid.
+	 */
+	public boolean anySolid(int x0, int y0, int x1, int y1) {
+		int total = size * csize;
+		x0 = Math.max(0, x0);
+		y0 = Math.max(0, y0);
+		x1 = Math.min(total - 1, x1);
+		y1 = Math.min(total - 1, y1);
+		if (x0 > x1 || y0 > y1) {
+			return false;
+		}
+		for (int cy = y0 / csize; cy <= y1 / csize; cy++) {
+			int ly0 = Math.max(y0 - cy * csize, 0);
+			int ly1 = Math.min(y1 - cy * csize, csize - 1);
+			for (int cx = x0 / csize; cx <= x1 / csize; cx++) {
+				Chunk c = chunks[cx][cy];
+				if (c == null) {
+					continue;
+				}
+				int lx0 = Math.max(x0 - cx * csize, 0);
+				int lx1 = Math.min(x1 - cx * csize, csize - 1);
+				for (int ly = ly0; ly <= ly1; ly++) {
+					if (c.anySolid(ly, lx0, lx1)) {
+						return true;
+					}
+				}
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * Resets the Light on all Chunks, calling {@link Chunk#resetLight(boolean)}.
 	 * @param frontbuffer whether to reset in front- or back-buffer.
@@ -325,11 +476,24 @@ public class ChunkManager {
 		return chunks[x][y];
 	}
 
+	/**
+	 * @return the combined {@link Chunk#digest()} of all Chunks.
+	 */
+	public long digest() {
+		long hash = Rand.mix(size, csize);
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x < size; x++) {
+				hash = Rand.mix(hash, chunks[x][y].digest());
+			}
+		}
+		return hash;
+	}
+
 	/**
 	 * @return the Load process in %, used by the loading bar, and {@link SingleplayerWorldTHEFUCK#getLoaded()}.
 	 */
 	public float getLoadProgress() {
-		return ((float)loaded/(float)toLoad)*100f;
+		return ((float)loaded.get()/(float)toLoad)*100f;
 	}
 
 	/**
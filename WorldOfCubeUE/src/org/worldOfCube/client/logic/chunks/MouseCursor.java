@@ -27,9 +27,7 @@ import org.worldOfCube.client.blocks.BlockID;
 import org.worldOfCube.client.input.InputManager;
 import org.worldOfCube.client.input.WorldInputListener;
 import org.worldOfCube.client.logic.collision.Rectangle;
-import org.worldOfCube.client.logic.entity.EntityDrop;
 import org.worldOfCube.client.logic.entity.EntityPlayer;
-import org.worldOfCube.client.logic.inventory.Item;
 import org.worldOfCube.client.logic.inventory.ItemStack;
 import org.worldOfCube.client.res.ResLoader;
 import org.worldOfCube.client.util.Distance;
@@ -113,10 +111,10 @@ public class MouseCursor implements WorldInputListener {
 			Block b = c.getLocalBlock(bx, by, inforeground);
 			if (b != null) {
 				c.setLocalBlock(bx, by, null, inforeground);
-				world.addEntity(new EntityDrop(
-						new Item(BlockID.blockToItem(b)),
+				world.spawnDrop(
+						BlockID.blockToItem(b),
 						x*ResLoader.BLOCK_SIZE,
-						y*ResLoader.BLOCK_SIZE));
+						y*ResLoader.BLOCK_SIZE);
 				c.updateDiamond(bx, by);
 			}
 			break;
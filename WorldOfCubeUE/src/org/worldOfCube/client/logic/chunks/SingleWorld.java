@@ -35,6 +35,7 @@ import org.universeengine.display.UniDisplay;
 import org.worldOfCube.client.ClientMain;
 import org.worldOfCube.client.blocks.Block;
 import org.worldOfCube.client.logic.chunks.light.LightUpdater;
+import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.logic.entity.Entity;
 import org.worldOfCube.client.logic.entity.EntityMouselight;
 import org.worldOfCube.client.logic.entity.EntityPlayer;
@@ -57,6 +58,8 @@ public class SingleWorld extends World {
 	protected MouseCursor cursor;
 	protected Entity watching;
 	protected EntityPlayer player;
+	protected double lastViewx;
+	protected double lastViewy;
 
 	/**
 	 * @see World#World(int, int, long, String)
@@ -82,6 +85,14 @@ public class SingleWorld extends World {
 		initialize(ep, display);
 	}
 
+	/**
+	 * @see World#World(ChunkManager, long, float[][][], String)
+	 */
+	public SingleWorld(EntityPlayer ep, ChunkManager cManager, long seed, float[][][] layers, String name, UniDisplay display) {
+		super(cManager, seed, layers, name);
+		initialize(ep, display);
+	}
+
 	protected void initialize(EntityPlayer ep, UniDisplay display) {
 		// Setup stuff with the given Player Entity, so it is set as player and
 		// will be followed by the viewport when moving around the world.
@@ -97,12 +108,16 @@ public class SingleWorld extends World {
 		// Calculate width and height of the viewport:
 		viewport.w = display.getWidth();
 		viewport.h = display.getHeight();
+		lastViewx = viewport.x;
+		lastViewy = viewport.y;
 
 		// TODO: (Mouselight) Remove it, when lightblocks are implemented ;)
 		addEntity(new EntityMouselight(0, 0, 1, 1));
 	}
 
 	public void tick(double delta, UniDisplay display) {
+		lastViewx = viewport.x;
+		lastViewy = viewport.y;
 		super.tick(delta);
 		// Calculate width and height of the viewport:
 		viewport.w = display.getWidth();
@@ -168,7 +183,10 @@ public class SingleWorld extends World {
 	public void render() {
 		glPushMatrix();
 		{
-			glTranslatef((float)-viewport.x, (float)-viewport.y, 0f);
+			// Interpolate the camera the same way the entities are interpolated:
+			double viewx = lastViewx + (viewport.x - lastViewx) * interpolation;
+			double viewy = lastViewy + (viewport.y - lastViewy) * interpolation;
+			glTranslatef((float)-viewx, (float)-viewy, 0f);
 			glColor3f(1f, 1f, 1f);
 
 			boolean vaorend = Config.get("block_rendering").equals("vao");
@@ -187,8 +205,15 @@ public class SingleWorld extends World {
 			}
 
 			for (int i = 0; i < entitys.size(); i++) {
-				entitys.get(i).render(this);
+				Entity e = entitys.get(i);
+				glPushMatrix();
+				glTranslatef(
+						(float)(e.interpolatedX(interpolation) - e.getRect().x),
+						(float)(e.interpolatedY(interpolation) - e.getRect().y), 0f);
+				e.render(this);
+				glPopMatrix();
 			}
+			drops.render(this, interpolation);
 		}
 		glPopMatrix();
 		// Set the color stuff back to wonderful white:
@@ -199,7 +224,7 @@ public class SingleWorld extends World {
 		}
 
 		if (Config.get("debug").equals("on")) {
-			GLFont.render(10f, 30f, GLFont.ALIGN_LEFT, entitys.size() + " entitys.", 10);
+			GLFont.render(10f, 30f, GLFont.ALIGN_LEFT, entitys.size() + " entitys, " + drops.size() + " drops.", 10);
 			GLFont.render(10f, 40f, GLFont.ALIGN_LEFT,
 					String.format(
 							"Player position: (%G, %G)",
@@ -213,11 +238,10 @@ public class SingleWorld extends World {
 	 * @see World#removeEntity(Entity)
 	 */
 	@Override
-	public void removeEntity(Entity e) {
+	protected void entityRemoved(Entity e) {
 		if (e == player) {
 			player = null;
 		}
-		super.removeEntity(e);
 	}
 
 	/**
@@ -282,8 +306,11 @@ public class SingleWorld extends World {
 	}
 
 	private void setToSpawnPosition(EntityPlayer ep) {
-		ep.getRect().x = totalPix / 2 + ((rand.nextInt() % (64 * ResLoader.BLOCK_SIZE))- (32 * ResLoader.BLOCK_SIZE));;
-		ep.move(0, totalPix/2, this);
+		Rectangle spawn = findSpawnPosition(ep.getRect().w, ep.getRect().h);
+		ep.getRect().x = spawn.x;
+		ep.getRect().y = spawn.y;
+		// Land exactly on the surface:
+		ep.move(0, ResLoader.BLOCK_SIZE, this);
 	}
 
 	public float getClearColorRed() { return ClientMain.BG_R * light.getSunlight().getStrength(); }
@@ -21,25 +21,30 @@
  */
 package org.worldOfCube.client.logic.chunks;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Random;
 
 import org.magicwerk.brownies.collections.GapList;
-import org.magicwerk.brownies.collections.MaxList;
-import org.matheusdev.util.Dist;
-import org.worldOfCube.client.blocks.Block;
+import org.worldOfCube.Log;
 import org.worldOfCube.client.input.InputListener;
+import org.worldOfCube.client.logic.chunks.generation.GenerationPipeline;
 import org.worldOfCube.client.logic.chunks.generation.Generator;
+import org.worldOfCube.client.logic.chunks.generation.RandomStream;
 import org.worldOfCube.client.logic.chunks.light.LightUpdater;
 import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.logic.entity.Entity;
-import org.worldOfCube.client.logic.entity.EntityDrop;
+import org.worldOfCube.client.logic.entity.DropStore;
+import org.worldOfCube.client.logic.entity.EntityGrid;
+import org.worldOfCube.client.logic.entity.EntityList;
 import org.worldOfCube.client.logic.entity.EntityPlayer;
+import org.worldOfCube.client.logic.inventory.Item;
 import org.worldOfCube.client.res.ResLoader;
+import org.worldOfCube.client.util.Config;
+import org.worldOfCube.client.util.WorkerPool;
 import org.worldOfCube.client.util.debug.PerfMonitor;
 import org.worldOfCube.client.util.list.ImmutableWrappingList;
-import org.worldOfCube.client.util.vecmath.Vec;
 
 /**
  * @author matheusdev
@@ -49,21 +54,74 @@ public abstract class World implements InputListener {
 
 	public static final double GRAVITY = 2*64*9.81;
 	public static final int MAX_DROPS = 2000;
+	/** The distance in pixels, within which drops fly towards the nearest player. */
+	public static final double DROP_ATTRACT_DIST = 64;
+	/** The distance in pixels, within which the nearest player collects drops. */
+	public static final double DROP_COLLECT_DIST = 8;
+	/** The minimum number of parallel-safe Entitys, to tick them in parallel. */
+	public static final int PARALLEL_ENTITYS = 8;
+	/** The default of the "drop_merge_radius" config entry. */
+	public static final double DEFAULT_DROP_MERGE_RADIUS = 16;
 
 	public final int totalPix;
 	public final int totalBlocks;
 	public final Random rand;
 
+	protected final long seed;
+	protected final Random spawnRand;
 	protected final Rectangle bounds;
 	protected final Rectangle viewport;
 	protected final String name;
 	protected ChunkManager cManager;
+	protected Generator generator;
 	protected LightUpdater light;
 
-	protected GapList<Entity> entitys = new GapList<Entity>();
-	protected MaxList<EntityDrop> drops = new MaxList<EntityDrop>(MAX_DROPS);
+	protected final EntityList entitys = new EntityList();
+	protected final DropStore drops = new DropStore(MAX_DROPS, getDropMergeRadius());
 	protected GapList<EntityPlayer> players = new GapList<EntityPlayer>();
 	protected HashMap<String, EntityPlayer> playerNames = new HashMap<String, EntityPlayer>();
+	/** The spatial index of the players. */
+	protected final EntityGrid<EntityPlayer> playerGrid;
+	/** The spatial index of all Entitys, which are not players. */
+	protected final EntityGrid<Entity> entityGrid;
+	protected double interpolation = 1.0;
+	/*
+	 * The command buffer of Entity changes while iterating over the Entitys:
+	 * pendingEntitys[i] is added, if pendingAdds[i] is true, else removed,
+	 * when the iteration ends.
+	 */
+	private final List<Entity> pendingEntitys = new ArrayList<Entity>();
+	private final List<Boolean> pendingAdds = new ArrayList<Boolean>();
+	private boolean deferring;
+
+	/*
+	 * State of the parallel phases of a tick:
+	 * parallelEntitys: the Entitys, which are ticked in parallel.
+	 * dropCollectors: the player collecting drop i, found in parallel.
+	 * parallelPhase: whether Entitys are ticked in parallel right now.
+	 */
+	private final List<Entity> parallelEntitys = new ArrayList<Entity>();
+	private final EntityPlayer[] dropCollectors = new EntityPlayer[MAX_DROPS];
+	private final int[] solidChanges = new int[4];
+	private volatile boolean parallelPhase;
+	private double tickDelta;
+	private final WorkerPool.RangeAction tickEntityRange = new WorkerPool.RangeAction() {
+		@Override
+		public void run(int begin, int end) {
+			for (int i = begin; i < end; i++) {
+				parallelEntitys.get(i).tick(tickDelta, World.this);
+			}
+		}
+	};
+	private final WorkerPool.ParallelRange parallelTickEntitys =
+			new WorkerPool.ParallelRange(PARALLEL_ENTITYS / 2, tickEntityRange);
+	private final WorkerPool.ParallelRange parallelAttractDrops =
+			new WorkerPool.ParallelRange(DropStore.PARALLEL_DROPS, new WorkerPool.RangeAction() {
+		@Override
+		public void run(int begin, int end) {
+			attractDrops(begin, end);
+		}
+	});
 
 	/**
 	 * <p>Calls {@link #World(int, int, long, String)} with
@@ -79,12 +137,14 @@ public abstract class World implements InputListener {
 	 * which means, that the world will have not previously defined blocks on the Chunks in ChunkManager.</p>
 	 * @param numChunks the number of chunks in both x and y axis.
 	 * @param chunkSize the number of blocks in the chunk on both the x and y axis.
-	 * @param seed the seed to use for the random number generator.
+	 * @param seed the seed of the world. Every part of the generation derives its
+	 * own {@link RandomStream} from it, so the same seed generates the same world.
 	 * @param name the name of the world.
 	 */
 	public World(int numChunks, int chunkSize, long seed, String name) {
 		// Initialize constructor stuff:
 		this.name = name;
+		this.seed = seed;
 		// Calculate the helper-Constants:
 		//  - totalBlocks: The total size of blocks along the whole world
 		//  - totalPix: The total number of pixels along the whole world
@@ -93,10 +153,14 @@ public abstract class World implements InputListener {
 		// Initialize the bounds of the world and the viewport. viewport = bounds by default.
 		bounds = new Rectangle(0, 0, totalPix, totalPix);
 		viewport = new Rectangle(bounds);
+		// The Entity grids have a cell per Chunk:
+		playerGrid = new EntityGrid<EntityPlayer>(totalPix, totalPix, chunkSize*ResLoader.BLOCK_SIZE);
+		entityGrid = new EntityGrid<Entity>(totalPix, totalPix, chunkSize*ResLoader.BLOCK_SIZE);
 		// Create ChunkManager with the sizes set in constructor:
 		cManager = new ChunkManager(numChunks, chunkSize);
-		// New Random for getting random numbers.
-		rand = new Random();
+		// New Randoms for getting random numbers.
+		rand = RandomStream.GAME.create(seed);
+		spawnRand = RandomStream.SPAWN.create(seed);
 		// Generate the world on the new ChunkManager:
 		generateWorld();
 	}
@@ -111,6 +175,22 @@ public abstract class World implements InputListener {
 	 * @throws NullPointerException if "cManager" is null.
 	 */
 	public World(ChunkManager cManager, String name) {
+		this(cManager, System.nanoTime() ^ (System.currentTimeMillis() >>> 10), null, name);
+	}
+
+	/**
+	 * <p>Creates a new World instance with a previously generated {@link ChunkManager},
+	 * like {@link #World(ChunkManager, String)}, but with the seed and the noise layers
+	 * it was generated with, usually loaded from the world's header.</p>
+	 * <p>The {@link Generator} is recreated from the layers, without any noise work.</p>
+	 * @param cManager the ChunkManager with all definitions of Blocks.
+	 * @param seed the seed the world was generated with.
+	 * @param layers the {@link Generator#getLayers()} the world was generated with,
+	 * or null, if they are not known.
+	 * @param name the name of the world.
+	 * @throws NullPointerException if "cManager" is null.
+	 */
+	public World(ChunkManager cManager, long seed, float[][][] layers, String name) {
 		if (cManager == null) throw new NullPointerException("cManager == null");
 		// Initialize stuff given in the constructor arguments:
 		// Especially the ChunkManager, which is already given here
@@ -122,57 +202,194 @@ public abstract class World implements InputListener {
 		// Initialize bounds and viewport, which equals bounds by default.
 		bounds = new Rectangle(0, 0, totalPix, totalPix);
 		viewport = new Rectangle(bounds);
-		// Initialize Random instance:
-		rand = new Random(System.nanoTime() ^ (System.currentTimeMillis() >>> 10));
+		playerGrid = new EntityGrid<EntityPlayer>(totalPix, totalPix, cManager.getChunkSize()*ResLoader.BLOCK_SIZE);
+		entityGrid = new EntityGrid<Entity>(totalPix, totalPix, cManager.getChunkSize()*ResLoader.BLOCK_SIZE);
+		// Initialize Random instances:
+		this.seed = seed;
+		rand = RandomStream.GAME.create(seed);
+		spawnRand = RandomStream.SPAWN.create(seed);
+		if (layers != null) {
+			generator = new Generator(seed, layers, this);
+		}
 	}
 
 	/**
 	 * <p>This method generates the world. Should be called AFTER the {@link #cManager}
 	 * was created.</p>
 	 * <p>This will first initialize an instance of {@link Generator}, and then
-	 * call {@link ChunkManager#create(Generator)} on {@link #cManager}.</p>
+	 * run the stages of the {@link #createPipeline() generation pipeline}.</p>
+	 * <p>Logs the {@link ChunkManager#digest()} of the generated world, which only
+	 * depends on the seed and the size of the world.</p>
 	 */
 	public void generateWorld() {
-		Generator g = new Generator(0.6f, 4f, rand, this);
-		cManager.create(g); // Creates the blocks according to the information from the "Generator".
-		cManager.updateAll();
-		g.generateTrees();
+		generator = new Generator(0.6f, 4f, seed, this);
+		createPipeline().run(this, generator);
+		Log.out("World digest for seed " + seed + ": " + Long.toHexString(cManager.digest()));
+	}
+
+	/**
+	 * Override this to add, remove or replace generation stages.
+	 * @return the pipeline used by {@link #generateWorld()}.
+	 */
+	protected GenerationPipeline createPipeline() {
+		return GenerationPipeline.createDefault();
+	}
+
+	/**
+	 * @return the seed of this world.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the Generator this world was generated with, or null, if
+	 * the world was loaded without its noise layers.
+	 */
+	public Generator getGenerator() {
+		return generator;
 	}
 
 	/**
-	 * The update-step, called every frame. This does only update things,
+	 * The update-step, called with a fixed time step. This does only update things,
 	 * but does not render.
-	 * @param d the delta time, passed since the last update. Usually gotten from {@link org.worldOfCube.client.screens.Screen#getDelta()}
+	 * @param d the delta time, passed since the last update. Usually {@link org.worldOfCube.client.screens.ScreenGame#TICK_TIME}
 	 */
 	protected void tick(double d) {
 		PerfMonitor.startProfile("ENTITY TICK");
-		for (Entity e : entitys) {
-			e.tick(d, this);
+		deferring = true;
+		try {
+			tickEntitys(d);
+		} finally {
+			applyEntityChanges();
+		}
+		PerfMonitor.stopProfile("ENTITY TICK");
+	}
+
+	/**
+	 * <p>Ticks all Entitys and drops. Entitys added or removed in here are
+	 * only queued, so the list of Entitys doesn't change while iterating over it.</p>
+	 * <p>The tick runs in phases, so the phases, which only read the World and
+	 * write to independent state, can run in parallel on the {@link WorkerPool}:</p>
+	 * <ol>
+	 * <li>Ticking the Entitys. The ones, which are {@link Entity#isParallelTickSafe()},
+	 * are ticked in parallel, if there are at least {@link #PARALLEL_ENTITYS}.
+	 * Meanwhile the spatial index is not updated.</li>
+	 * <li>Updating the spatial index (serially).</li>
+	 * <li>Moving the drops (in parallel), then removing and merging them (serially).</li>
+	 * <li>Finding the nearest player of every drop and moving the drop towards
+	 * it (in parallel), then letting the players collect their drops (serially).</li>
+	 * </ol>
+	 */
+	private void tickEntitys(double d) {
+		for (int i = 0; i < entitys.size(); i++) {
+			entitys.get(i).savePosition();
+		}
+		drops.savePositions();
+
+		parallelEntitys.clear();
+		for (int i = 0; i < entitys.size(); i++) {
+			Entity e = entitys.get(i);
+			if (e.isParallelTickSafe()) {
+				parallelEntitys.add(e);
+			} else {
+				e.tick(d, this);
+			}
+		}
+		tickDelta = d;
+		if (parallelEntitys.size() >= PARALLEL_ENTITYS) {
+			parallelPhase = true;
+			try {
+				parallelTickEntitys.run(0, parallelEntitys.size());
+			} finally {
+				parallelPhase = false;
+			}
+		} else {
+			tickEntityRange.run(0, parallelEntitys.size());
+		}
+		parallelEntitys.clear();
+
+		// Entitys may also have been moved without Entity.move():
+		for (int i = 0; i < entitys.size(); i++) {
+			updateEntityGrid(entitys.get(i));
+		}
+
+		if (cManager.takeSolidChanges(solidChanges)) {
+			// Wake up the drops lying on or next to the changed Blocks:
+			drops.wake((solidChanges[0] - 1) * ResLoader.BLOCK_SIZE,
+					(solidChanges[1] - 1) * ResLoader.BLOCK_SIZE,
+					(solidChanges[2] + 2) * ResLoader.BLOCK_SIZE,
+					(solidChanges[3] + 2) * ResLoader.BLOCK_SIZE);
+		}
+		drops.tick(d, this);
+
+		parallelAttractDrops.run(0, drops.size());
+		// Backwards, so the drops moved into the places of collected ones are already done:
+		for (int i = drops.size() - 1; i >= 0; i--) {
+			EntityPlayer collector = dropCollectors[i];
+			if (collector != null) {
+				dropCollectors[i] = null;
+				drops.setCount(i, collector.collect(drops.getItem(i), drops.getCount(i)));
+			}
 		}
-		for (int i = 0; i < drops.size(); i++) {
-			EntityDrop drop = drops.get(i);
-			EntityPlayer nearestPlayer = nearestPlayer(drop.midx(), drop.midy());
-			double dist = Dist.squared(drop.midx(), drop.midy(), nearestPlayer.midx(), nearestPlayer.midy());
-
-			if (dist < 64*64) {
-				if (dist < 8*8) {
-					if (nearestPlayer.collect(drop)) {
-						removeEntity(drop);
+	}
+
+	/**
+	 * Moves the drops [begin, end) towards their nearest player, or marks them
+	 * to be collected by it in {@link #dropCollectors}. Only touches the given drops.
+	 */
+	private void attractDrops(int begin, int end) {
+		for (int i = begin; i < end; i++) {
+			double midx = drops.midx(i);
+			double midy = drops.midy(i);
+			EntityPlayer nearestPlayer = nearestPlayer(midx, midy, DROP_ATTRACT_DIST);
+
+			if (nearestPlayer != null) {
+				double dx = nearestPlayer.midx() - midx;
+				double dy = nearestPlayer.midy() - midy;
+				if (dx*dx + dy*dy < DROP_COLLECT_DIST*DROP_COLLECT_DIST) {
+					if (drops.isCollectable(i)) {
+						dropCollectors[i] = nearestPlayer;
 					}
 				} else {
-					Vec delta = new Vec(drop.midx(), drop.midy(), nearestPlayer.midx(), nearestPlayer.midy());
-					delta.normalize();
-					delta.mul(6f);
-
-					drop.move(delta.x, delta.y, this);
+					// Move 6 pixels towards the player (no Vec, ticks allocate nothing):
+					double scale = 6.0 / Math.sqrt(dx*dx + dy*dy);
+					drops.move(i, dx*scale, dy*scale, this);
 				}
 			}
 		}
-		PerfMonitor.stopProfile("ENTITY TICK");
+	}
+
+	/**
+	 * Stops queuing, and applies the Entity additions and removals queued
+	 * while iterating over the Entitys, in the order they were made.
+	 */
+	private void applyEntityChanges() {
+		deferring = false;
+		for (int i = 0; i < pendingEntitys.size(); i++) {
+			if (pendingAdds.get(i)) {
+				applyAdd(pendingEntitys.get(i));
+			} else {
+				applyRemove(pendingEntitys.get(i));
+			}
+		}
+		pendingEntitys.clear();
+		pendingAdds.clear();
 	}
 
 	public abstract void render();
 
+	/**
+	 * <p>Sets the interpolation factor used for rendering.</p>
+	 * <p>The world is ticked with a fixed time step, so a rendered frame
+	 * usually lies between two ticks. Entities are rendered at the position
+	 * interpolated between the last and the current tick.</p>
+	 * @param alpha 0 for the last tick's state, 1 for the current one.
+	 */
+	public void setInterpolation(double alpha) {
+		interpolation = alpha;
+	}
+
 	/**
 	 * <p>Converts the given <tt>xposition</tt> from window-space to
 	 * a world-space position.</p>
@@ -228,57 +445,173 @@ public abstract class World implements InputListener {
 	 * this method to remove an <tt>Entity</tt> you can be sure, this Entity will be
 	 * removed entirely. So if no reference to the <tt>Entity</tt> is hold outside, the
 	 * <tt>Entity</tt> will be GCed.</p>
+	 * <p>If this is called while the World ticks or dispatches input events to its
+	 * <tt>Entity</tt>s, the removal is queued, and applied at the end. Removing is O(1).</p>
 	 * @param e the {@link Entity} to be removed.
 	 */
 	public void removeEntity(Entity e) {
+		if (deferring) {
+			pendingEntitys.add(e);
+			pendingAdds.add(Boolean.FALSE);
+		} else {
+			applyRemove(e);
+		}
+	}
+
+	private void applyRemove(Entity e) {
+		if (!entitys.contains(e)) {
+			return;
+		}
 		if (e instanceof EntityPlayer) {
 			EntityPlayer ep = (EntityPlayer) e;
 
 			players.remove(ep);
 			playerNames.remove(ep.getName());
-		} else if (e instanceof EntityDrop) {
-			drops.remove(e);
+			playerGrid.remove(ep);
+		} else {
+			entityGrid.remove(e);
 		}
 		entitys.remove(e);
+		entityRemoved(e);
+	}
+
+	/**
+	 * Called, after an {@link Entity} was removed from this World.
+	 * Override this to drop references to it.
+	 * @param e the removed {@link Entity}.
+	 */
+	protected void entityRemoved(Entity e) {
 	}
 
 	/**
 	 * <p>Adds the given {@link Entity} to the inner-used lists of <tt>Entity</tt>s</p>
 	 * <p>If the <tt>Entity</tt> is an instance of special <tt>Entity</tt>s, for
-	 * example {@link EntityPlayer} or {@link EntityDrop}, then a reference to the
+	 * example {@link EntityPlayer}, then a reference to the
 	 * <tt>Entity</tt> will also be added to these Lists.</p>
 	 * <p>To remove an <tt>Entity</tt>, see {@link #removeEntity(Entity)}</p>
+	 * <p>If this is called while the World ticks or dispatches input events to its
+	 * <tt>Entity</tt>s, the addition is queued, and applied at the end.</p>
 	 * @param e the {@link Entity} to be added.
 	 */
 	public void addEntity(Entity e) {
 		if (e == null) throw new NullPointerException("e == null");
+		if (deferring) {
+			pendingEntitys.add(e);
+			pendingAdds.add(Boolean.TRUE);
+		} else {
+			applyAdd(e);
+		}
+	}
+
+	private void applyAdd(Entity e) {
+		if (entitys.contains(e)) {
+			return;
+		}
 		if (e instanceof EntityPlayer) {
 			EntityPlayer ep = (EntityPlayer) e;
 			playerNames.put(ep.getName(), ep);
 			players.add(ep);
-		} else if (e instanceof EntityDrop) {
-			EntityDrop ed = (EntityDrop) e;
-			drops.add(ed);
+			playerGrid.add(ep);
+		} else {
+			entityGrid.add(e);
 		}
 		entitys.add(e);
 	}
 
-	public EntityPlayer nearestPlayer(double x, double y) {
-		double lastDist = Double.MAX_VALUE;
-		EntityPlayer nearest = null;
-		for (int i = 0; i < players.size(); i++) {
-			double dist = Dist.squared(x, y, players.get(i).midx(), players.get(i).midy());
-			if (dist < lastDist) {
-				lastDist = dist;
-				nearest = players.get(i);
-			}
+	/**
+	 * <p>Drops an Item into the world, at the given position with a
+	 * random start velocity.</p>
+	 * <p>Drops are no {@link Entity}s, but are kept in the {@link DropStore}
+	 * of this World. If there are {@link #MAX_DROPS} drops already, the oldest
+	 * one is replaced.</p>
+	 * @param itemID the ID of the dropped {@link Item}.
+	 * @param x the world-space x position in pixels.
+	 * @param y the world-space y position in pixels.
+	 */
+	public void spawnDrop(int itemID, double x, double y) {
+		drops.spawn(itemID, x, y, 0, rand);
+	}
+
+	/**
+	 * @return the radius, within which drops of the same Item merge, from the
+	 * "drop_merge_radius" config entry, or {@link #DEFAULT_DROP_MERGE_RADIUS}.
+	 */
+	public static double getDropMergeRadius() {
+		String radius = Config.get("drop_merge_radius");
+		if (radius == null) {
+			return DEFAULT_DROP_MERGE_RADIUS;
+		}
+		try {
+			return Math.max(0, Double.parseDouble(radius));
+		} catch (NumberFormatException e) {
+			return DEFAULT_DROP_MERGE_RADIUS;
+		}
+	}
+
+	/**
+	 * @return the drops of this World.
+	 */
+	public DropStore getDrops() {
+		return drops;
+	}
+
+	/**
+	 * <p>Moves the {@link Entity} to the right cell of the spatial index, after
+	 * it moved. {@link Entity#move(double, double, World)} calls this, and
+	 * {@link #tick(double)} calls it for every <tt>Entity</tt> after ticking them.</p>
+	 * <p>Does nothing, if the <tt>Entity</tt> was not added to this World, or
+	 * while Entitys are ticked in parallel (they are updated after that).</p>
+	 * @param e the {@link Entity}, which moved.
+	 */
+	public void updateEntityGrid(Entity e) {
+		if (parallelPhase) {
+			return;
+		}
+		if (e instanceof EntityPlayer) {
+			playerGrid.update((EntityPlayer) e);
+		} else {
+			entityGrid.update(e);
 		}
-		return nearest;
+	}
+
+	/**
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @return the player nearest to (x, y), or null, if there are no players.
+	 */
+	public EntityPlayer nearestPlayer(double x, double y) {
+		return nearestPlayer(x, y, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * <p>Finds the nearest player through the spatial index, so
+	 * only players in the cells near (x, y) are looked at.</p>
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param maxDist the maximum distance of the player's middle.
+	 * @return the player nearest to (x, y), or null, if there is none within <tt>maxDist</tt>.
+	 */
+	public EntityPlayer nearestPlayer(double x, double y, double maxDist) {
+		return playerGrid.nearest(x, y, maxDist, null);
+	}
+
+	/**
+	 * <p>Finds all {@link Entity}s, players included, whose middle is
+	 * within <tt>radius</tt> of (x, y), through the spatial index.</p>
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param radius the maximum distance.
+	 * @param result the list to add the found <tt>Entity</tt>s to.
+	 * @return the given result list.
+	 */
+	public List<Entity> queryEntitys(double x, double y, double radius, List<Entity> result) {
+		playerGrid.query(x, y, radius, result);
+		return entityGrid.query(x, y, radius, result);
 	}
 
 	/**
 	 * <p>Returns, whether the {@link Entity} <tt>e</tt> exists in any of the used Data Structures for
-	 * <tt>Entity</tt>s.</p>
+	 * <tt>Entity</tt>s. Queued additions and removals are not applied yet. O(1).</p>
 	 * @param e whether the {@link Entity} <tt>e</tt> exists in any of the used Data Structures for
 	 * <tt>Entity</tt>s.
 	 * @throws NullPointerException if <tt>e == null</tt>
@@ -294,23 +627,61 @@ public abstract class World implements InputListener {
 
 	@Override
 	public void handleKeyEvent(int keyCode, char keyChar, boolean down) {
-		for (Entity e : entitys) {
-			e.handleKeyEvent(keyCode, keyChar, down, this);
+		deferring = true;
+		try {
+			for (int i = 0; i < entitys.size(); i++) {
+				entitys.get(i).handleKeyEvent(keyCode, keyChar, down, this);
+			}
+		} finally {
+			applyEntityChanges();
 		}
 	}
 
 	@Override
 	public void handleMouseEvent(int mousex, int mousey, int button, boolean down) {
-		for (Entity e : entitys) {
-			e.handleMouseEvent(mousex, mousey, button, down, this);
+		deferring = true;
+		try {
+			for (int i = 0; i < entitys.size(); i++) {
+				entitys.get(i).handleMouseEvent(mousex, mousey, button, down, this);
+			}
+		} finally {
+			applyEntityChanges();
 		}
 	}
 
 	@Override
 	public void handleMousePosition(int mousex, int mousey) {
-		for (Entity e : entitys) {
-			e.handleMousePosition(mousex, mousey, this);
+		deferring = true;
+		try {
+			for (int i = 0; i < entitys.size(); i++) {
+				entitys.get(i).handleMousePosition(mousex, mousey, this);
+			}
+		} finally {
+			applyEntityChanges();
+		}
+	}
+
+	/**
+	 * <p>Finds the position new players spawn at: the last free position above
+	 * the surface, near the horizontal middle of the world.</p>
+	 * <p>Uses the {@link RandomStream#SPAWN} stream, so the spawn position only
+	 * depends on the seed.</p>
+	 * @param w the width of the player.
+	 * @param h the height of the player.
+	 * @return the rectangle of the player at the spawn position.
+	 */
+	public Rectangle findSpawnPosition(double w, double h) {
+		Rectangle rect = new Rectangle(totalPix / 2 + ((spawnRand.nextInt() % (64 * ResLoader.BLOCK_SIZE))- (32 * ResLoader.BLOCK_SIZE)), 0, w, h);
+		// Step down, until the next step would intersect a Block
+		// (rectCollidesBlocks returns false on intersection):
+		while (rect.y < totalPix / 2) {
+			rect.y += ResLoader.BLOCK_SIZE;
+			if (!rectCollidesBlocks(rect)) {
+				rect.y -= ResLoader.BLOCK_SIZE;
+				break;
+			}
 		}
+		return rect;
 	}
 
 	/**
@@ -318,25 +689,81 @@ public abstract class World implements InputListener {
 	 * @return whether the rect is intersecting any block in the whole world.
 	 */
 	public boolean rectCollidesBlocks(Rectangle rect) {
-		int beginx = (int) (rect.x / ResLoader.BLOCK_SIZE);
-		int beginy = (int) (rect.y / ResLoader.BLOCK_SIZE);
-		int endx = (int) ((rect.x + rect.w) / ResLoader.BLOCK_SIZE) + 1;
-		int endy = (int) ((rect.y + rect.h) / ResLoader.BLOCK_SIZE) + 1;
-		Block b;
-		for (int x = beginx; x < endx; x++) {
-			for (int y = beginy; y < endy; y++) {
-				b = cManager.getBlock(x, y, true);
-				if (b != null) {
-					Rectangle[] rects = b.getCollisionRects();
-					for (int i = 0; i < rects.length; i++) {
-						if (rect.intersects(rects[i])) {
-							return false;
-						}
-					}
+		// The tiles the rect overlaps (touching a tile's edge is no overlap):
+		int beginx = (int) Math.floor(rect.x / ResLoader.BLOCK_SIZE);
+		int beginy = (int) Math.floor(rect.y / ResLoader.BLOCK_SIZE);
+		int endx = (int) Math.ceil((rect.x + rect.w) / ResLoader.BLOCK_SIZE) - 1;
+		int endy = (int) Math.ceil((rect.y + rect.h) / ResLoader.BLOCK_SIZE) - 1;
+		return !cManager.anySolid(beginx, beginy, endx, endy);
+	}
+
+	/**
+	 * <p>Sweeps the given rect along one axis through the block grid and
+	 * returns the position it reaches: either the wanted position, or the
+	 * position where it touches the first solid block in the way.</p>
+	 * <p>Only the tile columns (or rows) the leading edge of the rect enters
+	 * are looked at, so the cost depends on the number of tiles crossed, and
+	 * not on the number of collision checks of a step-by-step movement.
+	 * Tiles the rect already overlaps are ignored, so an Entity stuck in a
+	 * block can still move out of it.</p>
+	 * @param rect the rect to move. Is not changed.
+	 * @param delta the distance to move along the axis, in pixels.
+	 * @param xaxis whether to move along the x axis, else along the y axis.
+	 * @return the new x (or y) position of the rect. If it differs from
+	 * <tt>rect.x + delta</tt> (or <tt>rect.y + delta</tt>), a block was hit.
+	 */
+	public double sweepBlocks(Rectangle rect, double delta, boolean xaxis) {
+		return sweepBlocks(rect.x, rect.y, rect.w, rect.h, delta, xaxis);
+	}
+
+	/**
+	 * Same as {@link #sweepBlocks(Rectangle, double, boolean)}, but with the
+	 * rect given as values, for things without a {@link Rectangle}, like drops.
+	 */
+	public double sweepBlocks(double x, double y, double w, double h, double delta, boolean xaxis) {
+		final int bs = ResLoader.BLOCK_SIZE;
+		double pos = xaxis ? x : y;
+		double size = xaxis ? w : h;
+		double side = xaxis ? y : x;
+		double sideSize = xaxis ? h : w;
+		double target = pos + delta;
+		if (delta == 0.0) {
+			return target;
+		}
+		// The tiles overlapped perpendicular to the movement:
+		int sideBegin = Math.max(0, (int) Math.floor(side / bs));
+		int sideEnd = Math.min(totalBlocks - 1, (int) Math.ceil((side + sideSize) / bs) - 1);
+		if (sideBegin > sideEnd) {
+			return target;
+		}
+		if (delta > 0) {
+			// The tiles the leading (right / bottom) edge enters:
+			int begin = Math.max(0, (int) Math.ceil((pos + size) / bs));
+			int end = Math.min(totalBlocks - 1, (int) Math.ceil((target + size) / bs) - 1);
+			for (int t = begin; t <= end; t++) {
+				if (isSolidLine(t, sideBegin, sideEnd, xaxis)) {
+					return t * bs - size;
+				}
+			}
+		} else {
+			// The tiles the leading (left / top) edge enters:
+			int begin = Math.min(totalBlocks - 1, (int) Math.floor(pos / bs) - 1);
+			int end = Math.max(0, (int) Math.floor(target / bs));
+			for (int t = begin; t >= end; t--) {
+				if (isSolidLine(t, sideBegin, sideEnd, xaxis)) {
+					return (t + 1) * bs;
 				}
 			}
 		}
-		return true;
+		return target;
+	}
+
+	/**
+	 * @return whether any of the blocks in column (or row) <tt>t</tt>,
+	 * from <tt>begin</tt> to <tt>end</tt> (inclusive) is solid.
+	 */
+	private boolean isSolidLine(int t, int begin, int end, boolean column) {
+		return column ? cManager.anySolid(t, begin, t, end) : cManager.anySolid(begin, t, end, t);
 	}
 
 }
@@ -21,26 +21,68 @@
  */
 package org.worldOfCube.client.logic.chunks;
 
-import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
-import javax.imageio.ImageIO;
-
-import org.worldOfCube.client.blocks.Block;
-import org.worldOfCube.client.blocks.BlockEarth;
-import org.worldOfCube.client.blocks.BlockGrass;
-import org.worldOfCube.client.blocks.BlockLightstone;
-import org.worldOfCube.client.blocks.BlockRock;
+import org.worldOfCube.Log;
+import org.worldOfCube.client.blocks.BlockID;
+import org.worldOfCube.client.util.PngWriter;
+import org.worldOfCube.client.util.Timer;
+import org.worldOfCube.client.util.WorkerPool;
 
+/**
+ * <p>Exports a map of a World as PNG image, with one block
+ * per pixel (or scale x scale pixels per block).</p>
+ * <p>The image is streamed: Strips of block rows are rendered
+ * and compressed in parallel, a few at a time, and written
+ * to the file right away, so exporting a huge world only needs
+ * memory for the strips in flight.</p>
+ * @author matheusdev
+ *
+ */
 public class WorldMapGenerator {
 
 	public static final String screendir = "worldimgs";
 
+	/** The number of raw image bytes each strip should roughly contain. */
+	private static final int STRIP_BYTES = 1 << 20;
+
+	private static final int SKY = 0x91BAFF;
+	/** The color of every BlockID, indexed by BlockID. */
+	private static final int[] COLORS = new int[BlockID.WOOD+1];
+
+	static {
+		for (int i = 0; i < COLORS.length; i++) {
+			COLORS[i] = SKY;
+		}
+		COLORS[BlockID.GRASS] = 0x00FF00;
+		COLORS[BlockID.EARTH] = 0xAC7754;
+		COLORS[BlockID.ROCK] = 0x444444;
+		COLORS[BlockID.LIGHTSTONE] = 0x888800;
+	}
+
+	/**
+	 * Exports the given World with one pixel per block
+	 * to the next free file in {@link #screendir}.
+	 * @param world the World to export.
+	 */
 	public WorldMapGenerator(World world) {
-		BufferedImage img = new BufferedImage(world.totalPix, world.totalPix, BufferedImage.TYPE_3BYTE_BGR);
-		createImageData(img, world);
+		this(world, 1);
+	}
 
+	/**
+	 * Exports the given World to the next free file in {@link #screendir}.
+	 * @param world the World to export.
+	 * @param scale the number of pixels along each side of a block.
+	 */
+	public WorldMapGenerator(World world, int scale) {
 		File screendirectory = new File(screendir);
 		if (!screendirectory.exists()) {
 			screendirectory.mkdir();
@@ -54,61 +96,109 @@ public class WorldMapGenerator {
 			f = new File(screenname + i + imageformat);
 			i++;
 		} while(f.exists());
+
 		try {
-			f.createNewFile();
+			export(world, scale, f);
 		} catch (IOException e) {
 			e.printStackTrace();
 		}
-
-		saveBuffimg(img, f);
 	}
 
-	private void createImageData(BufferedImage img, World world) {
-		int r = 0;
-		int g = 0;
-		int b = 0;
-		Block block;
-		for (int x = 0; x < img.getWidth(); x++) {
-			for (int y = 0; y < img.getHeight(); y++) {
-				block = world.getChunkManager().getBlock(x, y, true);
-				if (block != null) {
-					if (block instanceof BlockGrass) {
-						r = 0x00;
-						g = 0xFF;
-						b = 0x00;
-					} else if (block instanceof BlockEarth) {
-						r = 0xAC;
-						g = 0x77;
-						b = 0x54;
-					} else if (block instanceof BlockRock) {
-						r = 0x44;
-						g = 0x44;
-						b = 0x44;
-					} else if (block instanceof BlockLightstone) {
-						r = 0x88;
-						g = 0x88;
-						b = 0x00;
-					} else {
-						r = 0x91;
-						g = 0xBA;
-						b = 0xFF;
-					}
-				} else {
-					r = 0x91;
-					g = 0xBA;
-					b = 0xFF;
+	/**
+	 * Exports a map of the given World to the given file.
+	 * @param world the World to export.
+	 * @param scale the number of pixels along each side of a block.
+	 * @param file the PNG file to write.
+	 * @throws IOException if writing the file fails.
+	 */
+	public static void export(World world, int scale, File file) throws IOException {
+		if (scale < 1) {
+			throw new IllegalArgumentException("Scale must be at least 1, but is " + scale);
+		}
+		Timer t = new Timer().start();
+		final ChunkManager cm = world.getChunkManager();
+		final int blocks = world.totalBlocks;
+		final int size = blocks * scale;
+		if ((long) size * 3 + 1 > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Image of " + size + " pixels width is too big.");
+		}
+		final int sc = scale;
+
+		PngWriter png = new PngWriter(new BufferedOutputStream(new FileOutputStream(file), 1 << 16), size, size);
+		boolean complete = false;
+		try {
+			// The number of block rows per strip:
+			final int blockRowBytes = png.getRowBytes() * scale;
+			final int stripRows = Math.max(1, Math.min(blocks, STRIP_BYTES / blockRowBytes));
+			final int batch = WorkerPool.getParallelism();
+
+			List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>(batch);
+			List<byte[]> strips = new ArrayList<byte[]>(batch);
+			for (int y = 0; y < blocks; y += stripRows * batch) {
+				tasks.clear();
+				for (int s = 0; s < batch && y + s * stripRows < blocks; s++) {
+					final int y0 = y + s * stripRows;
+					final int y1 = Math.min(blocks, y0 + stripRows);
+					tasks.add(new Callable<byte[]>() {
+						@Override
+						public byte[] call() {
+							return renderStrip(cm, y0, y1, blocks, sc, blockRowBytes);
+						}
+					});
+				}
+				strips.clear();
+				for (Future<byte[]> strip : WorkerPool.get().invokeAll(tasks)) {
+					strips.add(strip.get());
+				}
+				png.writeStrips(strips);
+			}
+			complete = true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while exporting the world map.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Rendering the world map failed.", e.getCause());
+		} finally {
+			if (complete) {
+				png.close();
+			} else {
+				try {
+					png.close();
+				} catch (IOException e) {
+					// Complains about the missing rows, but the actual failure is thrown already.
 				}
-				img.setRGB(x, y, (r >> 8) | (g >> 16) | (b >> 24));
 			}
 		}
+		Log.out("Exported " + size + "x" + size + " world map to " + file + " in " + t.stop() + " ms.");
 	}
 
-	private void saveBuffimg(BufferedImage img, File file) {
-		try {
-			ImageIO.write(img, "PNG", file);
-		} catch (IOException e) {
-			e.printStackTrace();
+	/**
+	 * Renders the block rows [y0, y1) into raw PNG scanlines.
+	 */
+	private static byte[] renderStrip(ChunkManager cm, int y0, int y1, int blocks, int scale, int blockRowBytes) {
+		int rowBytes = blockRowBytes / scale;
+		byte[] data = new byte[(y1 - y0) * blockRowBytes];
+		for (int by = y0; by < y1; by++) {
+			int row = (by - y0) * blockRowBytes;
+			// The first scanline of this block row, after the filter byte (0):
+			int i = row + 1;
+			for (int bx = 0; bx < blocks; bx++) {
+				int rgb = COLORS[BlockID.blockToId(cm.getBlock(bx, by, true))];
+				byte r = (byte) (rgb >> 16);
+				byte g = (byte) (rgb >> 8);
+				byte b = (byte) rgb;
+				for (int p = 0; p < scale; p++) {
+					data[i++] = r;
+					data[i++] = g;
+					data[i++] = b;
+				}
+			}
+			// The other scanlines of this block row are the same:
+			for (int s = 1; s < scale; s++) {
+				System.arraycopy(data, row, data, row + s * rowBytes, rowBytes);
+			}
 		}
+		return data;
 	}
 
 }
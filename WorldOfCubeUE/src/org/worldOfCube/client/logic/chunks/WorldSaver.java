@@ -37,6 +37,8 @@ import org.universeengine.display.UniDisplay;
 import org.worldOfCube.Log;
 import org.worldOfCube.client.blocks.Block;
 import org.worldOfCube.client.blocks.BlockID;
+import org.worldOfCube.client.logic.chunks.generation.Generator;
+import org.worldOfCube.client.logic.collision.Rectangle;
 import org.worldOfCube.client.logic.entity.Entity;
 import org.worldOfCube.client.logic.entity.EntityPlayer;
 import org.worldOfCube.client.logic.inventory.Inventory;
@@ -80,6 +82,9 @@ public class WorldSaver {
 	private class WorldLoadPack {
 		public int wsize;
 		public int csize;
+		public boolean hasGenerator;
+		public long seed;
+		public float[][][] layers;
 		public List<PlayerInfo> players;
 	}
 
@@ -96,6 +101,9 @@ public class WorldSaver {
 	public static final byte PLAYER_FLAG = (byte)0xBB;
 	public static final byte INV_SLOT_FlAG = (byte)0xCC;
 	public static final byte INV_FLAG = (byte)0xDD;
+	public static final byte GENERATOR_FLAG = (byte)0xEE;
+
+	public static final String DEFAULT_PLAYER = "Player";
 
 	private static WorldSaver instance;
 
@@ -169,9 +177,28 @@ public class WorldSaver {
 		dos.writeInt(world.getChunkManager().size);
 		dos.writeInt(world.getChunkManager().csize);
 
+		Generator g = world.getGenerator();
+		if (g != null) {
+			dos.writeByte(GENERATOR_FLAG);
+			dos.writeLong(g.getSeed());
+			float[][][] layers = g.getLayers();
+			dos.writeInt(layers.length);
+			dos.writeInt(layers[0].length);
+			dos.writeInt(layers[0][0].length);
+			for (float[][] side : layers) {
+				for (float[] layer : side) {
+					for (int i = 0; i < layer.length; i++) {
+						dos.writeFloat(layer[i]);
+					}
+				}
+			}
+		}
+
+		boolean hasPlayer = false;
 		for (Entity e : world.getEntitys()) {
 			if (e instanceof EntityPlayer) { // TODO: Workaround ClassCastException? Allow saving of other entities?
 				EntityPlayer ep = (EntityPlayer) e;
+				hasPlayer = true;
 
 				dos.writeByte(PLAYER_FLAG);
 				dos.writeUTF(ep.getName());
@@ -196,7 +223,14 @@ public class WorldSaver {
 				}
 			}
 		}
-
+		// Pre-generated worlds have no players yet, but loading needs one:
+		if (!hasPlayer) {
+			Rectangle spawn = world.findSpawnPosition(EntityPlayer.WIDTH, EntityPlayer.HEIGHT);
+			dos.writeByte(PLAYER_FLAG);
+			dos.writeUTF(DEFAULT_PLAYER);
+			dos.writeFloat((float) spawn.x);
+			dos.writeFloat((float) spawn.y);
+		}
 	}
 
 	private void saveItem(ItemStack is, DataOutputStream dos) throws IOException {
@@ -261,7 +295,12 @@ public class WorldSaver {
 			toLoad = 1;
 
 			PlayerInfo playerInfo = wlp.players.get(0);
-			SingleWorld world = new SingleWorld(new EntityPlayer(0, 0, playerInfo.name), cManager, name, display);
+			SingleWorld world;
+			if (wlp.hasGenerator) {
+				world = new SingleWorld(new EntityPlayer(0, 0, playerInfo.name), cManager, wlp.seed, wlp.layers, name, display);
+			} else {
+				world = new SingleWorld(new EntityPlayer(0, 0, playerInfo.name), cManager, name, display);
+			}
 			world.getPlayer().getRect().x = playerInfo.playerx;
 			world.getPlayer().getRect().y = playerInfo.playery;
 			Log.out("World loaded (" + (TimeUtil.ms()-time) + " ms)");
@@ -285,6 +324,21 @@ public class WorldSaver {
 				pack.wsize = dis.readInt();
 				pack.csize = dis.readInt();
 				break;
+			case GENERATOR_FLAG:
+				pack.hasGenerator = true;
+				pack.seed = dis.readLong();
+				int sides = dis.readInt();
+				int layers = dis.readInt();
+				int length = dis.readInt();
+				pack.layers = new float[sides][layers][length];
+				for (int s = 0; s < sides; s++) {
+					for (int l = 0; l < layers; l++) {
+						for (int i = 0; i < length; i++) {
+							pack.layers[s][l][i] = dis.readFloat();
+						}
+					}
+				}
+				break;
 			case PLAYER_FLAG:
 				if (currentPlayer != null) pack.players.add(currentPlayer);
 				currentPlayer = new PlayerInfo(); // Creates new Inventory instance in currentPlayer.inv
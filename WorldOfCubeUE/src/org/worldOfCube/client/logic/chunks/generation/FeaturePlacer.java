@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.chunks.generation;
+
+import java.util.Arrays;
+
+/**
+ * <p>Places features (like trees) on the world, so they don't overlap.</p>
+ * <p>Every feature requires a minimal distance to all features placed before it
+ * (Poisson-disc style). The placed features are kept in a uniform grid, whose
+ * cells are at least as big as the biggest distance, so a placement only has
+ * to check the features in the 3x3 cells around it, no matter how many
+ * features there are. One placer is shared by all sides of the world, so
+ * features at the corners also see each other.</p>
+ * @author matheusdev
+ *
+ */
+public class FeaturePlacer {
+
+	private final int cellSize;
+	private final int cells;
+	/** The index of the last feature placed in every cell, or -1. */
+	private final int[] head;
+
+	/** Per feature: position and the index of the previous feature in the same cell. */
+	private int[] xs = new int[64];
+	private int[] ys = new int[64];
+	private int[] next = new int[64];
+	private int size;
+
+	/**
+	 * @param worldSize the number of Blocks along both axes of the world.
+	 * @param cellSize the size of the grid cells in Blocks. The biggest
+	 * distance a feature may require.
+	 */
+	public FeaturePlacer(int worldSize, int cellSize) {
+		this.cellSize = cellSize;
+		this.cells = worldSize / cellSize + 1;
+		this.head = new int[cells * cells];
+		Arrays.fill(head, -1);
+	}
+
+	/**
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param minDist the distance, all other features need to have.
+	 * @return whether there is no feature closer than minDist to (x, y).
+	 * @throws IllegalArgumentException if minDist is bigger than the cell size.
+	 */
+	public boolean isFree(int x, int y, int minDist) {
+		if (minDist > cellSize) {
+			throw new IllegalArgumentException("minDist (" + minDist + ") > cellSize (" + cellSize + ")");
+		}
+		int cx = cell(x);
+		int cy = cell(y);
+		int minDistSq = minDist * minDist;
+		for (int ny = Math.max(0, cy - 1); ny <= Math.min(cells - 1, cy + 1); ny++) {
+			for (int nx = Math.max(0, cx - 1); nx <= Math.min(cells - 1, cx + 1); nx++) {
+				for (int i = head[ny * cells + nx]; i >= 0; i = next[i]) {
+					int dx = xs[i] - x;
+					int dy = ys[i] - y;
+					if (dx*dx + dy*dy < minDistSq) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Places a feature at (x, y), if it is {@link #isFree(int, int, int) free}.
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param minDist the distance, all other features need to have.
+	 * @return whether the feature was placed.
+	 */
+	public boolean tryPlace(int x, int y, int minDist) {
+		if (!isFree(x, y, minDist)) {
+			return false;
+		}
+		if (size == xs.length) {
+			xs = Arrays.copyOf(xs, size * 2);
+			ys = Arrays.copyOf(ys, size * 2);
+			next = Arrays.copyOf(next, size * 2);
+		}
+		int c = cell(y) * cells + cell(x);
+		xs[size] = x;
+		ys[size] = y;
+		next[size] = head[c];
+		head[c] = size;
+		size++;
+		return true;
+	}
+
+	/**
+	 * @return the number of placed features.
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int cell(int pos) {
+		return Math.max(0, Math.min(cells - 1, pos / cellSize));
+	}
+
+}
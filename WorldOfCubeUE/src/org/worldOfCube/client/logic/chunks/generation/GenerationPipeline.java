@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.chunks.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.chunks.World;
+import org.worldOfCube.client.util.Timer;
+import org.worldOfCube.client.util.WorkerPool;
+import org.worldOfCube.client.util.debug.Allocations;
+
+/**
+ * <p>Runs the {@link GenerationStage}s of the world generation in the
+ * order given by their dependencies.</p>
+ * <p>The stages are run in waves: a wave contains all stages, whose
+ * dependencies are finished. Parallel stages of the same wave run at the
+ * same time on the {@link WorkerPool}, all other stages run one after another.
+ * The time and the heap allocations of every stage are logged, so it's
+ * easy to see which stage is slow.</p>
+ * @author matheusdev
+ *
+ */
+public class GenerationPipeline {
+
+	/** Creates the Blocks of all Chunks, including the caves. */
+	public static final String TERRAIN = "terrain";
+	/** Calculates the borders of all Blocks. */
+	public static final String BORDERS = "borders";
+	/** Grows the trees on the surface. */
+	public static final String TREES = "trees";
+
+	private final Map<String, GenerationStage> stages = new LinkedHashMap<String, GenerationStage>();
+
+	/**
+	 * @return a new pipeline with the stages {@link #TERRAIN}, {@link #BORDERS}
+	 * and {@link #TREES}, which generate the world the way it always was.
+	 */
+	public static GenerationPipeline createDefault() {
+		GenerationPipeline pipeline = new GenerationPipeline();
+		pipeline.add(new GenerationStage(TERRAIN, false) {
+			@Override
+			public void run(World world, Generator g) {
+				// Creates the blocks according to the information from the "Generator".
+				world.getChunkManager().create(g);
+			}
+		});
+		pipeline.add(new GenerationStage(BORDERS, false, TERRAIN) {
+			@Override
+			public void run(World world, Generator g) {
+				world.getChunkManager().updateAll();
+			}
+		});
+		pipeline.add(new GenerationStage(TREES, false, BORDERS) {
+			@Override
+			public void run(World world, Generator g) {
+				g.generateTrees();
+			}
+		});
+		return pipeline;
+	}
+
+	/**
+	 * Registers a stage.
+	 * @param stage the stage to add.
+	 * @return this pipeline, for chaining.
+	 * @throws IllegalArgumentException if a stage with the same name already exists.
+	 */
+	public GenerationPipeline add(GenerationStage stage) {
+		if (stages.containsKey(stage.getName())) {
+			throw new IllegalArgumentException("A stage called \"" + stage.getName() + "\" already exists.");
+		}
+		stages.put(stage.getName(), stage);
+		return this;
+	}
+
+	/**
+	 * @param name the name of the stage to remove.
+	 * @return the removed stage, or null, if there was no stage with that name.
+	 */
+	public GenerationStage remove(String name) {
+		return stages.remove(name);
+	}
+
+	/**
+	 * @return all stages, in the order they were added.
+	 */
+	public List<GenerationStage> getStages() {
+		return Collections.unmodifiableList(new ArrayList<GenerationStage>(stages.values()));
+	}
+
+	/**
+	 * Sorts the stages into waves. Every stage only depends on stages
+	 * of earlier waves. Inside a wave, the stages keep the order they were added in.
+	 * @return the waves, in the order they have to be run.
+	 * @throws IllegalStateException if a dependency is missing, or
+	 * the dependencies are cyclic.
+	 */
+	public List<List<GenerationStage>> schedule() {
+		for (GenerationStage stage : stages.values()) {
+			for (String dependency : stage.getDependencies()) {
+				if (!stages.containsKey(dependency)) {
+					throw new IllegalStateException("The stage \"" + stage.getName() + "\" depends on the missing stage \"" + dependency + "\".");
+				}
+			}
+		}
+		List<List<GenerationStage>> waves = new ArrayList<List<GenerationStage>>();
+		List<GenerationStage> remaining = new ArrayList<GenerationStage>(stages.values());
+		Set<String> finished = new HashSet<String>();
+		while (!remaining.isEmpty()) {
+			List<GenerationStage> wave = new ArrayList<GenerationStage>();
+			for (GenerationStage stage : remaining) {
+				if (finished.containsAll(stage.getDependencies())) {
+					wave.add(stage);
+				}
+			}
+			if (wave.isEmpty()) {
+				throw new IllegalStateException("The stages " + remaining + " have cyclic dependencies.");
+			}
+			remaining.removeAll(wave);
+			for (GenerationStage stage : wave) {
+				finished.add(stage.getName());
+			}
+			waves.add(wave);
+		}
+		return waves;
+	}
+
+	/**
+	 * Runs all stages.
+	 * @param world the World to be generated.
+	 * @param g the Generator of the world.
+	 * @see #schedule()
+	 */
+	public void run(World world, Generator g) {
+		Timer total = new Timer().start();
+		for (List<GenerationStage> wave : schedule()) {
+			List<GenerationStage> parallel = new ArrayList<GenerationStage>();
+			for (GenerationStage stage : wave) {
+				if (stage.isParallel()) {
+					parallel.add(stage);
+				} else {
+					runStage(stage, world, g);
+				}
+			}
+			if (parallel.size() == 1) {
+				runStage(parallel.get(0), world, g);
+			} else if (parallel.size() > 1) {
+				runParallel(parallel, world, g);
+			}
+		}
+		Log.out("Generation took " + total.stop() + " milliseconds");
+	}
+
+	private void runStage(GenerationStage stage, World world, Generator g) {
+		long bytes = Allocations.allocatedBytes();
+		Timer t = new Timer().start();
+		stage.run(world, g);
+		long time = t.stop();
+		report(stage.getName(), time, bytes);
+	}
+
+	private void runParallel(List<GenerationStage> parallel, final World world, final Generator g) {
+		List<Callable<Long>> tasks = new ArrayList<Callable<Long>>();
+		for (final GenerationStage stage : parallel) {
+			tasks.add(new Callable<Long>() {
+				@Override
+				public Long call() {
+					Timer t = new Timer().start();
+					stage.run(world, g);
+					return t.stop();
+				}
+			});
+		}
+		long bytes = Allocations.allocatedBytes();
+		Timer t = new Timer().start();
+		try {
+			List<Future<Long>> times = WorkerPool.get().invokeAll(tasks);
+			for (int i = 0; i < times.size(); i++) {
+				Log.out("Stage %-12s %6d ms (parallel)", parallel.get(i).getName(), times.get(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running the stages " + parallel, e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("A stage of " + parallel + " failed.", e.getCause());
+		}
+		report(parallel.toString(), t.stop(), bytes);
+	}
+
+	/**
+	 * Logs the time and the allocations of this Thread and the {@link WorkerPool}
+	 * since <tt>bytesBefore</tt>.
+	 */
+	private void report(String name, long time, long bytesBefore) {
+		if (bytesBefore < 0) {
+			Log.out("Stage %-12s %6d ms", name, time);
+		} else {
+			long bytes = Allocations.allocatedBytes() - bytesBefore;
+			Log.out("Stage %-12s %6d ms, %8.1f MB allocated", name, time, bytes / (1024.0 * 1024.0));
+		}
+	}
+
+}
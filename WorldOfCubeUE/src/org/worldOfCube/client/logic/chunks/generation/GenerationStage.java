@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.chunks.generation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.worldOfCube.client.logic.chunks.World;
+
+/**
+ * <p>A step of the world generation, registered at a {@link GenerationPipeline}.</p>
+ * <p>A stage declares the names of the stages it depends on. It only runs,
+ * after all of them are finished. Stages, which are marked as parallel, may
+ * run at the same time as other parallel stages, so they must only touch
+ * data no other parallel stage touches.</p>
+ * @author matheusdev
+ *
+ */
+public abstract class GenerationStage {
+
+	private final String name;
+	private final boolean parallel;
+	private final List<String> dependencies;
+
+	/**
+	 * @param name the unique name of this stage.
+	 * @param parallel whether this stage may run at the same time as other parallel stages.
+	 * @param dependencies the names of the stages, which have to be finished before this one.
+	 */
+	public GenerationStage(String name, boolean parallel, String... dependencies) {
+		this.name = name;
+		this.parallel = parallel;
+		this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies));
+	}
+
+	/**
+	 * Runs this stage.
+	 * @param world the World to be generated.
+	 * @param g the Generator of the world.
+	 */
+	public abstract void run(World world, Generator g);
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	public List<String> getDependencies() {
+		return dependencies;
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
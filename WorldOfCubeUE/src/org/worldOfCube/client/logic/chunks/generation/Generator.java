@@ -28,6 +28,7 @@ import org.matheusdev.interpolation.FloatInterpolationCubicSpline;
 import org.matheusdev.noises.noise1.SimplexNoise1;
 import org.matheusdev.noises.noise1.SimplexNoiseLayer1;
 import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.chunks.BlockEditBuffer;
 import org.worldOfCube.client.logic.chunks.World;
 import org.worldOfCube.client.logic.chunks.generation.cave.CaveGenerator;
 import org.worldOfCube.client.logic.chunks.generation.trees.FineRootGenerator;
@@ -40,6 +41,11 @@ import org.worldOfCube.client.util.Rand;
 
 public class Generator {
 
+	/** The distance a big tree needs to all other trees. */
+	public static final int BIG_TREE_DIST = 32;
+	/** The distance a little tree needs to all other trees. */
+	public static final int LITTLE_TREE_DIST = 4;
+
 	protected static enum Layer {
 		SURFACE,
 		TREE_DENSITY,
@@ -83,10 +89,14 @@ public class Generator {
 	}
 
 	protected final float[][][] vals;
-	protected final boolean[][] cave;
+	protected final CaveGenerator cave;
 	protected final int size;
+	protected final long seed;
 	protected final Random rand;
+	protected final long chunkSeed;
 	protected final World world;
+	protected final BlockEditBuffer treeEdits;
+	protected final FeaturePlacer features;
 	protected final TreeGenerator bigTreeGen;
 	protected final TreeGenerator bigRootGen;
 	protected final TreeGenerator littleTreeGen;
@@ -97,106 +107,138 @@ public class Generator {
 	 * This Method does NOT generate blocks on the World/ChunkManager/Chunks.
 	 * This Method is ONLY for generating the Data, used to create Blocks
 	 * in the World, which means: the PerlinNoise values, and the
-	 * CaveGenerators.
+	 * CaveGenerator, which generates caves lazily per Chunk.
 	 * The Methods to create Block onto Chunks is ChunkManager.create(Generator, World).
+	 * Every stage gets its own {@link RandomStream} of the seed, so the
+	 * same seed always generates the same world.
 	 * @param minchange see PerlinNoise Constructor.
 	 * @param smoothness see PerlinNoise Constructor.
-	 * @param rand an instance of Random for generating Random values.
+	 * @param seed the seed of the world.
 	 * @param world the instance of world to be randomized.
 	 * @see org.matheusdev.noises.ValueNoise#PerlinNoise(int, float, float, float, float, Random)
 	 * @see org.worldOfCube.client.logic.chunks.ChunkManager#create(Generator, World)
 	 */
-	public Generator(float minchange, float smoothness, Random rand, World world) {
-		this.rand = rand;
+	public Generator(float minchange, float smoothness, long seed, World world) {
+		this(seed, null, world);
+	}
+
+	/**
+	 * <p>Creates a Generator, which reuses the noise layers of a previous Generator
+	 * for the same seed and world size, for example the ones stored in the
+	 * world's header. No noise has to be generated then.</p>
+	 * @param seed the seed of the world.
+	 * @param layers the layers from {@link #getLayers()}, or null to generate them.
+	 * @param world the instance of world to be randomized.
+	 * @throws IllegalArgumentException if the layers don't fit the world's size.
+	 */
+	public Generator(long seed, float[][][] layers, World world) {
+		this.seed = seed;
+		this.rand = RandomStream.TREES.create(seed);
 		this.world = world;
-		bigTreeGen = new FineTreeGenerator(rand, world);
-		bigRootGen = new FineRootGenerator(rand, world);
+		this.chunkSeed = RandomStream.CHUNKS.seed(seed);
+		treeEdits = new BlockEditBuffer(world.getChunkManager());
+		features = new FeaturePlacer(world.totalBlocks, BIG_TREE_DIST);
+		bigTreeGen = new FineTreeGenerator(rand, world, treeEdits);
+		bigRootGen = new FineRootGenerator(rand, world, treeEdits);
 
-		littleTreeGen = new LittleTreeGenerator(rand, world);
-		littleRootGen = new LittleRootGenerator(rand, world);
+		littleTreeGen = new LittleTreeGenerator(rand, world, treeEdits);
+		littleRootGen = new LittleRootGenerator(rand, world, treeEdits);
 
 		size = world.totalBlocks;
-		Log.out("Creating Generator for size " + size + " (wsize: " + world.getChunkManager().getSize() + ", csize: " + world.getChunkManager().getChunkSize() + ")");
 
-		vals = new float[Side.values().length][Layer.values().length][];
+		if (layers == null) {
+			Log.out("Creating Generator for size " + size + " (wsize: " + world.getChunkManager().getSize() + ", csize: " + world.getChunkManager().getChunkSize() + ")");
+			vals = new float[Side.values().length][Layer.values().length][];
+			/*
+			 * Everything following is Planet Generation:
+			 */
+			genSurface(RandomStream.SURFACE.create(seed));
+			genTreeDensity(RandomStream.TREE_DENSITY.create(seed));
+		} else {
+			checkLayers(layers);
+			vals = layers;
+		}
 
 		/*
-		 * Everything following is Planet Generation:
+		 * Caves are generated per Chunk, when the Chunk is created:
 		 */
-		final float fsize = size;
-		genSimplexNoise(Layer.SURFACE, 5, new NoiseModifier() {
-			@Override
-			public float modify(float val) {
-				return (((val + 1) / 2) * 32f) + (fsize / 8);
+		//TODO: CavePathGenerator?
+		cave = new CaveGenerator(world.totalBlocks, 3, 0.55f, 0.3f, RandomStream.CAVES.seed(seed));
+	}
+
+	private void checkLayers(float[][][] layers) {
+		if (layers.length != Side.values().length) {
+			throw new IllegalArgumentException("Expected " + Side.values().length + " sides, got " + layers.length);
+		}
+		for (float[][] side : layers) {
+			if (side.length != Layer.values().length) {
+				throw new IllegalArgumentException("Expected " + Layer.values().length + " layers, got " + side.length);
 			}
-		});
-		genSmoothSimplexNoise(Layer.TREE_DENSITY, 4, new NoiseModifier() {
-			@Override
-			public float modify(float val) {
-				float newVal = ((val + 1) / 2) * 6f;
-				return newVal - (int) newVal;
+			for (float[] layer : side) {
+				if (layer.length != size) {
+					throw new IllegalArgumentException("Expected layers of size " + size + ", got " + layer.length);
+				}
 			}
-		});
-
-		/*
-		 * Now we generate Caves:
-		 */
-		cave = new boolean[world.totalBlocks][world.totalBlocks];
-		//TODO: CavePathGenerator?
-		new CaveGenerator(cave, world.totalBlocks, 3, 0.55f, 0.3f, rand);
+		}
 	}
 
-	protected void genSimplexNoise(Layer layer, final int octaves, NoiseModifier modifier) {
-		int pos = layer.ordinal();
+	/**
+	 * Generates the height of the surface on every side.
+	 */
+	protected void genSurface(Random rand) {
+		int pos = Layer.SURFACE.ordinal();
+		float offset = size / 8f;
 		for (Side side : Side.values()) {
-			SimplexNoise1 noise = new SimplexNoise1(size, octaves, rand, new FloatInterpolationCubicSpline());
-			if (modifier != null) {
-
-				float[] noiseVals = noise.get();
-				vals[side.ordinal()][pos] = new float[noiseVals.length];
-
-				for (int i = 0; i < vals[side.ordinal()][pos].length; i++) {
-					vals[side.ordinal()][pos][i] = modifier.modify(noiseVals[i]);
-				}
-			} else {
-				vals[side.ordinal()][pos] = noise.get();
+			float[] noise = new SimplexNoise1(size, 5, rand, new FloatInterpolationCubicSpline()).get();
+			for (int i = 0; i < noise.length; i++) {
+				noise[i] = (((noise[i] + 1) / 2) * 32f) + offset;
 			}
+			vals[side.ordinal()][pos] = noise;
 		}
 	}
 
-	protected void genSmoothSimplexNoise(Layer layer, final int octaves, NoiseModifier modifier) {
-		int pos = layer.ordinal();
+	/**
+	 * Generates the tree density on every side.
+	 */
+	protected void genTreeDensity(Random rand) {
+		int pos = Layer.TREE_DENSITY.ordinal();
 		for (Side side : Side.values()) {
 			FloatInterpolation interp = new FloatInterpolationCubicSpline();
-			SimplexNoise1 noise = new SimplexNoise1(size,
+			float[] noise = new SimplexNoise1(size,
 					new SimplexNoiseLayer1[] {
 							new SimplexNoiseLayer1(size, 64, rand, interp),
 							new SimplexNoiseLayer1(size, 32, rand, interp)
 					}, new float[] {
 						2, 1
-					}, rand);
-			if (modifier != null) {
-
-				float[] noiseVals = noise.get();
-				vals[side.ordinal()][pos] = new float[noiseVals.length];
-
-				for (int i = 0; i < vals[side.ordinal()][pos].length; i++) {
-					vals[side.ordinal()][pos][i] = modifier.modify(noiseVals[i]);
-				}
-			} else {
-				vals[side.ordinal()][pos] = noise.get();
+					}, rand).get();
+			for (int i = 0; i < noise.length; i++) {
+				float val = ((noise[i] + 1) / 2) * 6f;
+				noise[i] = val - (int) val;
 			}
+			vals[side.ordinal()][pos] = noise;
 		}
 	}
 
+	/**
+	 * @return the noise layers per side (index [side][layer][position]),
+	 * which can be stored and given to {@link #Generator(long, float[][][], World)}.
+	 * Do not modify them.
+	 */
+	public float[][][] getLayers() {
+		return vals;
+	}
+
 	/**
 	 * Calling this will cause trees to be generated
 	 * on the world, given in the constructor.
 	 * This Method is not included in the constructor,
 	 * so "world" can call ChunkManager.create(Generator) first.
+	 * The trees are collected in a {@link BlockEditBuffer} and applied
+	 * at the end, so every border is only recalculated once.
 	 */
 	public void generateTrees() {
 		genTrees(world);
+		treeEdits.apply();
 	}
 
 	/**
@@ -221,6 +263,11 @@ public class Generator {
 	 * index of float[] surface, and then generating a tree with rotation,
 	 * set due to argument "side".<p>
 	 *
+	 * <p>Trees are placed through the {@link FeaturePlacer} shared by all
+	 * sides: a tree becomes a big tree, if there is no other tree within
+	 * {@link #BIG_TREE_DIST}, a little tree, if there is none within
+	 * {@link #LITTLE_TREE_DIST}, and is left out otherwise.</p>
+	 *
 	 * @param world the World to generate trees on.
 	 * @param tg the TreeGenerator used for the Trees(Logs).
 	 * @param rg the TreeGenerator used for Roots.
@@ -232,7 +279,6 @@ public class Generator {
 		float[] trees = vals[side.ordinal()][Layer.TREE_DENSITY.ordinal()];
 
 		float diff = 0;
-		int lastTree = 0;
 
 		for (int i = 0; i < surface.length; i++) {
 			diff = Math.abs(trees[i] - trees[(i+1) % trees.length]);
@@ -242,9 +288,11 @@ public class Generator {
 				int y = side.unpackY(i, (int)surface[i], world.totalBlocks);
 
 				if (isValid(x, y, -1)) {
-					genTree(x, y, side.degree, Math.abs(i - lastTree) > 32, world);
-
-					lastTree = i;
+					if (features.tryPlace(x, y, BIG_TREE_DIST)) {
+						genTree(x, y, side.degree, true, world);
+					} else if (features.tryPlace(x, y, LITTLE_TREE_DIST)) {
+						genTree(x, y, side.degree, false, world);
+					}
 				}
 			}
 		}
@@ -263,12 +311,32 @@ public class Generator {
 	}
 
 	/**
-	 * @return the instance of Random, given in the constructor.
+	 * @return the seed of the world, given in the constructor.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @return the Random of the {@link RandomStream#TREES} stream.
 	 */
 	public Random getRand() {
 		return rand;
 	}
 
+	/**
+	 * <p>Creates the random stream for generating a single chunk.</p>
+	 * <p>The stream only depends on the Generator's seed and the chunk position,
+	 * so chunks can be generated in parallel and in any order, and still
+	 * give the same world.</p>
+	 * @param chunkx the chunk-space x position.
+	 * @param chunky the chunk-space y position.
+	 * @return a new Random for the chunk at (chunkx, chunky).
+	 */
+	public Random getChunkRandom(int chunkx, int chunky) {
+		return new Random(Rand.mix(chunkSeed, chunkx, chunky));
+	}
+
 	/**
 	 * @return a random seed, used for PerlinNoise, to generate
 	 * in the right height.
@@ -326,9 +394,25 @@ public class Generator {
 	 * @param x the world-space x position.
 	 * @param y the world-space y position.
 	 * @return whether the position should be a cave, or not.
+	 * This generates the caves around the position, use
+	 * {@link #generateCaves(int, int, int, int)} for whole areas.
 	 */
 	public boolean isCaveSet(int x, int y) {
-		return cave[x][y];
+		return cave.get(x, y);
+	}
+
+	/**
+	 * Generates the caves of a world-space area, usually a Chunk.
+	 * Can be called from multiple Threads at once.
+	 * @param x the world-space x position of the area.
+	 * @param y the world-space y position of the area.
+	 * @param w the width of the area.
+	 * @param h the height of the area.
+	 * @return w * h values, row by row (index = y * w + x), where true is a cave.
+	 * @see CaveGenerator#generate(int, int, int, int)
+	 */
+	public boolean[] generateCaves(int x, int y, int w, int h) {
+		return cave.generate(x, y, w, h);
 	}
 
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.chunks.generation;
+
+import java.util.Random;
+
+import org.worldOfCube.client.util.Rand;
+
+/**
+ * <p>The independent random streams derived from a world's seed.</p>
+ * <p>Every generation stage uses its own stream, so the values one stage
+ * takes do not shift the values of the others. The same seed always gives the
+ * same world, no matter in which order (or on how many Threads) the stages run,
+ * and stages can be added without changing the output of the existing ones.</p>
+ * @author matheusdev
+ *
+ */
+public enum RandomStream {
+	/** The noise for the height of the surface. */
+	SURFACE,
+	/** The noise for the density of trees. */
+	TREE_DENSITY,
+	/** The start values of the cave automaton. */
+	CAVES,
+	/** The base seed for the per-chunk streams. */
+	CHUNKS,
+	/** Tree shapes and rotations. */
+	TREES,
+	/** The spawn position of players. */
+	SPAWN,
+	/** Everything random during the game, like drops. */
+	GAME;
+
+	/**
+	 * @param worldSeed the seed of the world.
+	 * @return the seed of this stream.
+	 */
+	public long seed(long worldSeed) {
+		return Rand.mix(worldSeed, ordinal());
+	}
+
+	/**
+	 * @param worldSeed the seed of the world.
+	 * @return a new Random for this stream.
+	 */
+	public Random create(long worldSeed) {
+		return new Random(seed(worldSeed));
+	}
+
+}
@@ -21,53 +21,158 @@
  */
 package org.worldOfCube.client.logic.chunks.generation.cave;
 
-import java.util.Random;
+import java.util.concurrent.RecursiveAction;
 
 import org.worldOfCube.client.util.Distance;
+import org.worldOfCube.client.util.Rand;
+import org.worldOfCube.client.util.WorkerPool;
 
 public class CaveGenerator {
 
-	private boolean[][] vals;
-	private int size;
-	private Random rand;
+	/** Areas with at least this many words per repetition are processed in parallel. */
+	private static final int PARALLEL_WORDS = 4096;
 
-	/**
-	 * Calls the other Constructor with "new boolean[size][size]" as first argument.
-	 */
-	public CaveGenerator(int size, int repeat, float leaningmid, float leaningborder, Random rand) {
-		this(new boolean[size][size], size, repeat, leaningmid, leaningborder, rand);
-	}
+	private final int size;
+	private final int repeat;
+	private final float leaningmid;
+	private final float leaningborder;
+	private final long seed;
+	/** The 24 bit random value, a position needs to start as cave, per distance to the mid. */
+	private final long[] thresholds;
 
 	/**
-	 * Creates a new boolean representation of caves, where
-	 * true is a cave, and false is a wall.
-	 * @param vals a boolean array to save the values to. (may be pre-created)
+	 * <p>Creates a new cave generator for a grid of the given size, where
+	 * true is a cave, and false is a wall.</p>
+	 * <p>Nothing is generated here. Caves are generated lazily for the
+	 * areas, that are needed, using {@link #generate(int, int, int, int)}.</p>
 	 * @param size the size of the grid for both x and y dimension.
 	 * @param repeat the number of times to repeat the algorithm.
 	 * @param leaningmid the "leaning"-value which defines how often a cave will appear in the mid.
 	 * @param leaningborder the "leaning"-value which defines how often a cave will appear on the border.
-	 * @param rand an instance of Random.
+	 * @param seed the seed for the initial random values.
 	 */
-	public CaveGenerator(boolean[][] vals, int size, int repeat, float leaningmid, float leaningborder, Random rand) {
+	public CaveGenerator(int size, int repeat, float leaningmid, float leaningborder, long seed) {
 		this.size = size;
-		this.vals = vals;
-		this.rand = rand;
-		generate(repeat, leaningmid, leaningborder);
+		this.repeat = repeat;
+		this.leaningmid = leaningmid;
+		this.leaningborder = leaningborder;
+		this.seed = seed;
+		this.thresholds = new long[size + 1];
+		for (int dist = 0; dist < thresholds.length; dist++) {
+			// leaning * 2^24 is exact, so comparing it to the integer is the
+			// same as comparing the float random value to the leaning:
+			float leaning = getLeaning(dist*1.4f, leaningmid, leaningborder);
+			thresholds[dist] = (long) Math.max(0.0, Math.min(1 << 24, Math.ceil((double) leaning * (1 << 24))));
+		}
 	}
 
 	/**
-	 * Randomizes the vals on the Grid to either true or false, using the Random instance.
-	 * Interpolates leaningmid and leaningborder to create specific cave-possibilities.
+	 * <p>Generates the caves in the given area of the grid.</p>
+	 * <p>Each repetition of the algorithm reads the 3x3 neighborhood of a
+	 * position, so the area is generated with a border of "repeat" positions
+	 * around it (the halo). The random start values only depend on the position,
+	 * so areas can be generated in any order, or in parallel, and neighboring
+	 * areas fit together seamlessly.</p>
+	 * <p>The grid is stored bit-packed, 64 positions per long, and every
+	 * repetition is double-buffered, so all positions of a word are decided at
+	 * once and the result does not depend on the iteration order. Big areas are
+	 * split up by rows and processed in parallel on the {@link WorkerPool}.</p>
+	 * @param x the x position of the area on the grid.
+	 * @param y the y position of the area on the grid.
+	 * @param w the width of the area.
+	 * @param h the height of the area.
+	 * @return w * h values, row by row (index = y * w + x), where true is a cave.
 	 */
-	private void randomize(float leaningmid, float leaningborder) {
-		for (int x = 0; x < size; x++) {
-			for (int y = 0; y < size; y++) {
-				if (vals[x][y] != true) {
-					vals[x][y] = rand.nextFloat() >=
-							getLeaning(Distance.getLinear(x, y, size/2, size/2)*1.4f, leaningmid, leaningborder);
+	public boolean[] generate(int x, int y, int w, int h) {
+		final int halo = repeat;
+		final int bw = w + 2*halo;
+		final int bh = h + 2*halo;
+		final int words = (bw + 63) >>> 6;
+		final int bx0 = x - halo;
+		final int by0 = y - halo;
+
+		// Which bits of a row are inside the buffer and inside the grid:
+		final long[] colMask = new long[words];
+		for (int bx = Math.max(0, -bx0); bx < Math.min(bw, size - bx0); bx++) {
+			colMask[bx >>> 6] |= 1L << (bx & 63);
+		}
+
+		// The first half of the position hash only depends on the column:
+		final long[] columnSeeds = new long[bw];
+		for (int bx = 0; bx < bw; bx++) {
+			columnSeeds[bx] = Rand.mix(seed, bx0 + bx);
+		}
+		final int firstColumn = Math.max(0, -bx0);
+		final int lastColumn = Math.min(bw, size - bx0);
+
+		final long[] start = new long[bh * words];
+		forRows(bh, words, new RowAction() {
+			@Override
+			public void rows(int begin, int end) {
+				for (int by = begin; by < end; by++) {
+					if (by0 + by < 0 || by0 + by >= size) {
+						continue;
+					}
+					for (int bx = firstColumn; bx < lastColumn; bx++) {
+						start[by * words + (bx >>> 6)] |= randomize(columnSeeds[bx], bx0 + bx, by0 + by) << (bx & 63);
+					}
 				}
 			}
+		});
+
+		long[] current = start;
+		long[] next = new long[bh * words];
+		for (int i = 0; i < repeat; i++) {
+			final long[] src = current;
+			final long[] dst = next;
+			forRows(bh, words, new RowAction() {
+				@Override
+				public void rows(int begin, int end) {
+					for (int by = begin; by < end; by++) {
+						boolean insideRow = by0 + by >= 0 && by0 + by < size;
+						for (int k = 0; k < words; k++) {
+							dst[by * words + k] = insideRow ? decide(src, words, bh, by, k) & colMask[k] : 0L;
+						}
+					}
+				}
+			});
+			current = dst;
+			next = src;
 		}
+
+		boolean[] area = new boolean[w * h];
+		for (int ay = 0; ay < h; ay++) {
+			int row = (ay + halo) * words;
+			for (int ax = 0; ax < w; ax++) {
+				int bx = ax + halo;
+				area[ay * w + ax] = (current[row + (bx >>> 6)] & (1L << (bx & 63))) != 0;
+			}
+		}
+		return area;
+	}
+
+	/**
+	 * @param x the x position on the grid.
+	 * @param y the y position on the grid.
+	 * @return whether the position is a cave. Generates the
+	 * area around the position, so use {@link #generate(int, int, int, int)}
+	 * for more than a few positions.
+	 */
+	public boolean get(int x, int y) {
+		return generate(x, y, 1, 1)[0];
+	}
+
+	/**
+	 * Randomizes the start value of a position to either true or false.
+	 * Interpolates leaningmid and leaningborder to create specific cave-possibilities.
+	 * @param columnSeed <tt>Rand.mix(seed, x)</tt>.
+	 * @return 1 for true, 0 for false.
+	 */
+	private long randomize(long columnSeed, int x, int y) {
+		// The upper 24 bits of the position's hash:
+		long random = Rand.mix(columnSeed, y) >>> 40;
+		// 1, if random >= threshold, without a branch:
+		return (thresholds[Distance.getLinear(x, y, size/2, size/2)] - 1 - random) >>> 63;
 	}
 
 	/**
@@ -82,58 +187,96 @@ public class CaveGenerator {
 	}
 
 	/**
-	 * The method/algorithm to generate the cave.
-	 * Calls randomize() in the beginning.
-	 * The algorithm is repeated "repeat"-times.
-	 * It calls decide() on each possible position on the grid.
-	 * @param repeat the number of times to repeat the algorithm.
-	 * @param leaning the leaning in the mid.
-	 * @param leaningborder the leaning on the border.
+	 * <p>Decides for all 64 positions of a word, whether they are true or false
+	 * in the next repetition. A position is true, when
+	 * the number of neighbors being true (including itself) is greater
+	 * or equal to 5. Positions outside the buffer count as false.</p>
+	 * <p>The 9 neighbor bits are added up bit-sliced: first every row's left,
+	 * mid and right bits into a 2-bit sum, then the three row sums into the
+	 * bits of weight 1, 2, 4 and 8 of the total count.</p>
+	 * @param vals the bit-packed buffer.
+	 * @param words the number of longs per row.
+	 * @param rows the number of rows.
+	 * @param row the row of the word to decide.
+	 * @param k the index of the word in the row.
+	 * @return the new word.
 	 */
-	private void generate(int repeat, float leaning, float leaningborder) {
-		randomize(leaning, leaningborder);
-		for (int i = 0; i < repeat; i++) {
-			for (int x = 0; x < size; x++) {
-				for (int y = 0; y < size; y++) {
-					decide(x, y);
-				}
-			}
+	private static long decide(long[] vals, int words, int rows, int row, int k) {
+		long ones = 0L;
+		long twos = 0L;
+		long carry = 0L;
+		long fours = 0L;
+		long eights = 0L;
+		for (int r = row - 1; r <= row + 1; r++) {
+			long mid = word(vals, words, rows, r, k);
+			long left = (mid << 1) | (word(vals, words, rows, r, k - 1) >>> 63);
+			long right = (mid >>> 1) | (word(vals, words, rows, r, k + 1) << 63);
+			// 2-bit sum of this row's three bits:
+			long rowOnes = left ^ mid ^ right;
+			long rowTwos = (left & mid) | (right & (left ^ mid));
+			// Add the row's ones to the total:
+			long onesCarry = ones & rowOnes;
+			ones ^= rowOnes;
+			// Add the row's twos and the carry to the total:
+			long twosSum = twos ^ rowTwos ^ onesCarry;
+			carry = (twos & rowTwos) | (onesCarry & (twos ^ rowTwos));
+			twos = twosSum;
+			// Add the carry to the fours and eights:
+			eights |= fours & carry;
+			fours ^= carry;
+		}
+		// count >= 5 <=> 8 | (4 & (2 | 1))
+		return eights | (fours & (twos | ones));
+	}
+
+	private static long word(long[] vals, int words, int rows, int row, int k) {
+		if (row < 0 || row >= rows || k < 0 || k >= words) {
+			return 0L;
 		}
+		return vals[row * words + k];
 	}
 
 	/**
-	 * Decides, whether to use set a specific point
-	 * of the grid to true or false.
-	 * Sets the position on the grid to true, when
-	 * the number of neighbors being true is greater
-	 * or equal to 5.
-	 * @param x the x position on the grid.
-	 * @param y the y position on the grid.
+	 * Calls the action for all rows, either directly, or split
+	 * up into row ranges on the {@link WorkerPool}, if there are enough words.
 	 */
-	private void decide(int x, int y) {
-		int count = 0;
-		for (int xi = x-1; xi <= x+1; xi++) {
-			for (int yi = y-1; yi <= y+1; yi++) {
-				if (get(xi, yi)) {
-					count++;
-				}
-			}
-		}
-		if (count >= 5) {
-			vals[x][y] = true;
+	private static void forRows(int rows, int words, RowAction action) {
+		if ((long) rows * words < PARALLEL_WORDS) {
+			action.rows(0, rows);
 		} else {
-			vals[x][y] = false;
+			WorkerPool.get().invoke(new RowTask(action, 0, rows, Math.max(1, PARALLEL_WORDS / words)));
 		}
 	}
 
-	/**
-	 * @param x the x position on the grid.
-	 * @param y the y position on the grid.
-	 * @return if x and y are valid, then it returns the value on the grid
-	 * at position [x][y], else it returns false.
-	 */
-	public boolean get(int x, int y) {
-		return (x >= 0 && y >= 0 && x < size && y < size && vals[x][y]);
+	private static interface RowAction {
+		void rows(int begin, int end);
 	}
 
+	private static class RowTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final RowAction action;
+		private final int begin;
+		private final int end;
+		private final int threshold;
+
+		RowTask(RowAction action, int begin, int end, int threshold) {
+			this.action = action;
+			this.begin = begin;
+			this.end = end;
+			this.threshold = threshold;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - begin <= threshold) {
+				action.rows(begin, end);
+			} else {
+				int mid = (begin + end) >>> 1;
+				invokeAll(new RowTask(action, begin, mid, threshold), new RowTask(action, mid, end, threshold));
+			}
+		}
+	}
+
+
 }
@@ -23,8 +23,8 @@ package org.worldOfCube.client.logic.chunks.generation.trees;
 
 import java.util.Random;
 
-import org.worldOfCube.client.blocks.BlockTreewood;
-import org.worldOfCube.client.logic.chunks.ChunkManager;
+import org.worldOfCube.client.blocks.BlockID;
+import org.worldOfCube.client.logic.chunks.BlockEditBuffer;
 import org.worldOfCube.client.logic.chunks.World;
 import org.worldOfCube.client.util.bresenhamline.PlaceAction;
 import org.worldOfCube.client.util.bresenhamline.Placer;
@@ -41,27 +41,27 @@ public class FineRootGenerator implements TreeGenerator {
 
 	private class TreewoodPlacer implements PlaceAction {
 
-		private ChunkManager cm;
+		private BlockEditBuffer edits;
 
-		public TreewoodPlacer(ChunkManager cm) {
-			this.cm = cm;
+		public TreewoodPlacer(BlockEditBuffer edits) {
+			this.edits = edits;
 		}
 
 		@Override
 		public void action(int x, int y) {
-			cm.addBlock(x, y, new BlockTreewood(false), false);
-			cm.addBlock(x+1, y, new BlockTreewood(false), false);
-			cm.addBlock(x+1, y+1, new BlockTreewood(false), false);
-			cm.addBlock(x, y+1, new BlockTreewood(false), false);
+			edits.place(x, y, BlockID.TREEWOOD, false);
+			edits.place(x+1, y, BlockID.TREEWOOD, false);
+			edits.place(x+1, y+1, BlockID.TREEWOOD, false);
+			edits.place(x, y+1, BlockID.TREEWOOD, false);
 		}
 	}
 
 	protected final Random rand;
 	protected final TreewoodPlacer twp;
 
-	public FineRootGenerator(Random rand, World world) {
+	public FineRootGenerator(Random rand, World world, BlockEditBuffer edits) {
 		this.rand = rand;
-		twp = new TreewoodPlacer(world.getChunkManager());
+		twp = new TreewoodPlacer(edits);
 	}
 
 	/* (non-Javadoc)
@@ -23,9 +23,8 @@ package org.worldOfCube.client.logic.chunks.generation.trees;
 
 import java.util.Random;
 
-import org.worldOfCube.client.blocks.BlockLeaves;
-import org.worldOfCube.client.blocks.BlockTreewood;
-import org.worldOfCube.client.logic.chunks.ChunkManager;
+import org.worldOfCube.client.blocks.BlockID;
+import org.worldOfCube.client.logic.chunks.BlockEditBuffer;
 import org.worldOfCube.client.logic.chunks.World;
 import org.worldOfCube.client.util.bresenhamline.PlaceAction;
 import org.worldOfCube.client.util.bresenhamline.Placer;
@@ -42,32 +41,32 @@ public class LittleTreeGenerator implements TreeGenerator {
 
 	private class TreewoodPlacer implements PlaceAction {
 
-		private ChunkManager cm;
+		private BlockEditBuffer edits;
 
-		public TreewoodPlacer(ChunkManager cm) {
-			this.cm = cm;
+		public TreewoodPlacer(BlockEditBuffer edits) {
+			this.edits = edits;
 		}
 
 		@Override
 		public void action(int x, int y) {
-			cm.addBlock(x, y, new BlockTreewood(false), false);
-//			cm.addBlock(x+1, y, new BlockTreewood(false), false);
-//			cm.addBlock(x+1, y+1, new BlockTreewood(false), false);
-//			cm.addBlock(x, y+1, new BlockTreewood(false), false);
+			edits.place(x, y, BlockID.TREEWOOD, false);
+//			edits.place(x+1, y, BlockID.TREEWOOD, false);
+//			edits.place(x+1, y+1, BlockID.TREEWOOD, false);
+//			edits.place(x, y+1, BlockID.TREEWOOD, false);
 		}
 	}
 
 	private class LeavesPlacer implements PlaceAction {
 
-		private ChunkManager cm;
+		private BlockEditBuffer edits;
 
-		public LeavesPlacer(ChunkManager cm) {
-			this.cm = cm;
+		public LeavesPlacer(BlockEditBuffer edits) {
+			this.edits = edits;
 		}
 
 		@Override
 		public void action(int x, int y) {
-			cm.addBlock(x, y, new BlockLeaves(true), true);
+			edits.place(x, y, BlockID.LEAVES, true);
 		}
 	}
 
@@ -76,11 +75,11 @@ public class LittleTreeGenerator implements TreeGenerator {
 	protected final LeavesPlacer lp;
 	protected final World world;
 
-	public LittleTreeGenerator(Random rand, World world) {
+	public LittleTreeGenerator(Random rand, World world, BlockEditBuffer edits) {
 		this.rand = rand;
 		this.world = world;
-		twp = new TreewoodPlacer(world.getChunkManager());
-		lp = new LeavesPlacer(world.getChunkManager());
+		twp = new TreewoodPlacer(edits);
+		lp = new LeavesPlacer(edits);
 	}
 
 	/* (non-Javadoc)
@@ -22,7 +22,6 @@
 package org.worldOfCube.client.logic.chunks.light;
 
 import org.worldOfCube.Log;
-import org.worldOfCube.client.blocks.Block;
 import org.worldOfCube.client.logic.chunks.Chunk;
 import org.worldOfCube.client.logic.chunks.ChunkManager;
 import org.worldOfCube.client.logic.collision.Rectangle;
@@ -80,6 +79,12 @@ public class LightUpdater {
 						}
 					}
 				}
+				// Unlit tiles need the light of the neighbor chunks, too:
+				for (int x = beginx; x < endx; x++) {
+					for (int y = beginy; y < endy; y++) {
+						cManager.getChunk(x, y).updateUnlitMask();
+					}
+				}
 				for (int x = beginx; x < endx; x++) {
 					for (int y = beginy; y < endy; y++) {
 						cManager.getChunk(x, y).flipLightBuffers();
@@ -227,10 +232,12 @@ public class LightUpdater {
 			float walls, float lastLight, RenderedLight light) {
 		if (!cManager.isValidPosition(x, y)) return;
 		if (x != midx || y != midy) {
-			Block fg = cManager.getBlock(x, y, true);
-			Block bg = cManager.getBlock(x, y, false);
-			if (fg != null) walls += fg.getLightWallness();
-			if (bg != null) walls += bg.getLightWallness();
+			// Only look up the Blocks, the Chunk's bitmasks say exist:
+			Chunk c = cManager.getChunkFromBlockCoords(x, y);
+			int bx = x - c.getX() * cManager.getChunkSize();
+			int by = y - c.getY() * cManager.getChunkSize();
+			if (c.hasBlock(bx, by, true)) walls += c.getLocalBlock(bx, by, true).getLightWallness();
+			if (c.hasBlock(bx, by, false)) walls += c.getLocalBlock(bx, by, false).getLightWallness();
 		}
 
 		float newLight = light.getMidRelative(midx-x, midy-y)-(walls*0.01f);
@@ -268,33 +275,35 @@ public class LightUpdater {
 	 * then it sets the light at (x, y) to "light".getStrength().
 	 * If the above is the case AND (x, y) has a surrounding block,
 	 * then it updates a light source with updateLightSource(int, int, RenderedLight).
+	 * The empty and surrounded tiles are found 64 at a time,
+	 * with the bitmasks of the Chunk.
 	 *
 	 * @param c the Chunk to calculate the surface lights for.
 	 * @param light the pre-rendered surface light to use.
 	 */
 	private void floodFillLight(Chunk c, RenderedLight light) {
-		for (byte x = 0; x < cManager.getChunkSize(); x++) {
-			for (byte y = 0; y < cManager.getChunkSize(); y++) {
-				if (c.getLocalBlock(x, y, true) == null
-						&& c.getLocalBlock(x, y, false) == null) {
-					if (hasSurrounding(c, x, y, false)
-							|| hasSurrounding(c, x, y, true)) {
+		int csize = cManager.getChunkSize();
+		for (int y = 0; y < csize; y++) {
+			for (int w = 0; w < c.getMaskWords(); w++) {
+				long empty = c.emptyWord(y, w);
+				if (empty == 0L) {
+					continue;
+				}
+				long surrounded = empty & c.surroundedWord(y, w);
+				while (empty != 0L) {
+					int bit = Long.numberOfTrailingZeros(empty);
+					empty &= empty - 1;
+					int x = (w << 6) + bit;
+					if ((surrounded & (1L << bit)) != 0L) {
 						updateLightSource(
-								c.getX()*cManager.getChunkSize()+x,
-								c.getY()*cManager.getChunkSize()+y,
+								c.getX()*csize+x,
+								c.getY()*csize+y,
 								light);
 					}
-					c.setLight(x, y, light.getStrength(), false);
+					c.setLight((byte) x, (byte) y, light.getStrength(), false);
 				}
 			}
 		}
 	}
 
-	private boolean hasSurrounding(Chunk c, int x, int y, boolean foreground) {
-		return c.getBlock(x-1, y, foreground) != null
-				|| c.getBlock(x+1, y, foreground) != null
-				|| c.getBlock(x, y-1, foreground) != null
-				|| c.getBlock(x, y+1, foreground) != null;
-	}
-
 }
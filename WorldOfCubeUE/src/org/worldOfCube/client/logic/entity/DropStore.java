@@ -0,0 +1,494 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.entity;
+
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.glBegin;
+import static org.lwjgl.opengl.GL11.glColor3f;
+import static org.lwjgl.opengl.GL11.glEnd;
+import static org.lwjgl.opengl.GL11.glVertex2f;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.worldOfCube.client.blocks.BlockID;
+import org.worldOfCube.client.logic.chunks.World;
+import org.worldOfCube.client.logic.collision.Rectangle;
+import org.worldOfCube.client.logic.inventory.Item;
+import org.worldOfCube.client.res.GLFont;
+import org.worldOfCube.client.res.ResLoader;
+import org.worldOfCube.client.res.Sprite;
+import org.worldOfCube.client.util.Rand;
+import org.worldOfCube.client.util.WorkerPool;
+
+/**
+ * <p>Stores all dropped Items of a World as "struct of arrays":
+ * Every property of the drops lives in its own primitive array,
+ * and drop i is the i-th element of every array.</p>
+ * <p>Drops are the most numerous Entitys, so instead of an
+ * object with its own Rectangle per drop, they are kept densely
+ * packed, updated in one tight loop, and removed by moving the last
+ * drop into the removed drop's place. So the indices of drops
+ * change, whenever a drop is removed.</p>
+ * <p>Every drop is a stack of a number of Items. After moving, drops
+ * of the same Item within the merge radius are merged into one stack,
+ * so mining many Blocks doesn't create many drops. Nearby drops are found
+ * with a spatial hash, rebuilt every tick.</p>
+ * <p>Moving the drops only reads the World, and every drop only writes
+ * its own elements, so it runs in parallel on the {@link WorkerPool}
+ * for many drops. Removing and merging happen afterwards, serially.</p>
+ * <p>Drops, which lie on a solid Block and have (almost) stopped, fall asleep:
+ * They are not moved anymore, until they are woken up by {@link #wake(double, double, double, double)},
+ * when Blocks around them change, or by being moved with {@link #move(int, double, double, World)},
+ * when a player attracts them.</p>
+ * @author matheusdev
+ *
+ */
+public class DropStore {
+
+	public static final int PIX_SIZE = 8;
+	/** The time in seconds, after which drops vanish. */
+	public static final double LIFE_TIME = 180;
+	/** The number of drops moved per task of the {@link WorkerPool}. */
+	public static final int PARALLEL_DROPS = 512;
+	/** The factor the x velocity of drops lying on Blocks is multiplied with every tick. */
+	public static final double GROUND_FRICTION = 0.9;
+	/** The x velocity in pixels per second, below which drops lying on Blocks fall asleep. */
+	public static final double SLEEP_VELOCITY = 0.1;
+
+	private final int capacity;
+	private int size;
+	private double mergeRadius;
+
+	private final double[] x;
+	private final double[] y;
+	private final double[] lastx;
+	private final double[] lasty;
+	private final double[] dx;
+	private final double[] dy;
+	private final double[] time;
+	private final double[] invulTime;
+	private final int[] item;
+	private final int[] count;
+	private final boolean[] asleep;
+
+	// The spatial hash for merging: the first drop in every hash cell, and the next drop of every drop:
+	private final int[] cellHead;
+	private final int[] cellNext;
+
+	// The arguments of the current tick, for the parallel tasks:
+	private double tickDelta;
+	private World tickWorld;
+	private final WorkerPool.ParallelRange integrate = new WorkerPool.ParallelRange(PARALLEL_DROPS, new WorkerPool.RangeAction() {
+		@Override
+		public void run(int begin, int end) {
+			integrate(begin, end);
+		}
+	});
+
+	/**
+	 * @param capacity the maximum number of drops. When it's
+	 * reached, new drops replace the oldest one.
+	 * @param mergeRadius the distance in pixels, within which drops of the
+	 * same Item are merged. 0 disables merging.
+	 */
+	public DropStore(int capacity, double mergeRadius) {
+		this.capacity = capacity;
+		this.mergeRadius = mergeRadius;
+		x = new double[capacity];
+		y = new double[capacity];
+		lastx = new double[capacity];
+		lasty = new double[capacity];
+		dx = new double[capacity];
+		dy = new double[capacity];
+		time = new double[capacity];
+		invulTime = new double[capacity];
+		item = new int[capacity];
+		count = new int[capacity];
+		asleep = new boolean[capacity];
+		cellHead = new int[Integer.highestOneBit(Math.max(1, capacity)) * 4];
+		cellNext = new int[capacity];
+	}
+
+	/**
+	 * Adds a drop with a random start velocity.
+	 * @param itemID the ID of the dropped Item.
+	 * @param x the world-space x position in pixels.
+	 * @param y the world-space y position in pixels.
+	 * @param invulTime the time in seconds until the drop can be collected.
+	 * @param rand the Random for the start velocity, usually {@link World#rand}.
+	 * @return the index of the new drop.
+	 */
+	public int spawn(int itemID, double x, double y, double invulTime, Random rand) {
+		int i = size;
+		if (size == capacity) {
+			i = oldest();
+		} else {
+			size++;
+		}
+		this.x[i] = x;
+		this.y[i] = y;
+		lastx[i] = x;
+		lasty[i] = y;
+		dx[i] = Rand.rangeFloat(4f, rand);
+		dy[i] = -(rand.nextFloat()*4f);
+		time[i] = 0;
+		this.invulTime[i] = invulTime;
+		item[i] = itemID;
+		count[i] = 1;
+		asleep[i] = false;
+		return i;
+	}
+
+	/**
+	 * Removes drop i, by moving the last drop to index i.
+	 * @param i the index of the drop to remove.
+	 */
+	public void remove(int i) {
+		int last = --size;
+		if (i != last) {
+			x[i] = x[last];
+			y[i] = y[last];
+			lastx[i] = lastx[last];
+			lasty[i] = lasty[last];
+			dx[i] = dx[last];
+			dy[i] = dy[last];
+			time[i] = time[last];
+			invulTime[i] = invulTime[last];
+			item[i] = item[last];
+			count[i] = count[last];
+			asleep[i] = asleep[last];
+		}
+	}
+
+	/**
+	 * Removes all drops.
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Remembers the current positions as the positions of the last tick, for interpolation.
+	 */
+	public void savePositions() {
+		System.arraycopy(x, 0, lastx, 0, size);
+		System.arraycopy(y, 0, lasty, 0, size);
+	}
+
+	/**
+	 * Applies gravity and moves all drops, removes the drops,
+	 * which are too old or outside of the world, and merges nearby
+	 * drops of the same Item.
+	 * @param delta the time step in seconds.
+	 * @param world the world the drops are in.
+	 */
+	public void tick(double delta, World world) {
+		tickDelta = delta;
+		tickWorld = world;
+		integrate.run(0, size);
+		tickWorld = null;
+		removeDead();
+		merge();
+	}
+
+	/**
+	 * Moves the drops [begin, end), which are awake, and lets drops fall asleep,
+	 * which came to rest on a Block. Marks drops, which have to be
+	 * removed, with a count of 0. Only touches the given drops.
+	 */
+	private void integrate(int begin, int end) {
+		double delta = tickDelta;
+		World world = tickWorld;
+		Rectangle bounds = world.getBounds();
+		double gravity = World.GRAVITY*delta;
+		for (int i = begin; i < end; i++) {
+			if (time[i] > LIFE_TIME || !bounds.intersects(x[i], y[i], PIX_SIZE, PIX_SIZE)) {
+				count[i] = 0;
+				continue;
+			}
+			time[i] += delta;
+			if (asleep[i]) {
+				continue;
+			}
+			if (time[i] <= invulTime[i]) {
+				dx[i] *= 0.9f; // De-Acceleration
+			}
+			dy[i] += gravity;
+			boolean falling = dy[i] > 0.0;
+			move(i, dx[i]*delta, dy[i]*delta, world);
+			// Falling, but stopped by a Block below:
+			if (falling && dy[i] == 0.0) {
+				dx[i] *= GROUND_FRICTION;
+				if (Math.abs(dx[i]) < SLEEP_VELOCITY) {
+					dx[i] = 0.0;
+					asleep[i] = true;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes all drops with a count of 0. Backwards, so the drops moved
+	 * into the removed places are already checked.
+	 */
+	private void removeDead() {
+		for (int i = size - 1; i >= 0; i--) {
+			if (count[i] == 0) {
+				remove(i);
+			}
+		}
+	}
+
+	/**
+	 * <p>Merges drops of the same Item, whose middles are within the merge radius
+	 * of each other, as long as the merged stack is not bigger than
+	 * {@link Item#getStackable(int)}.</p>
+	 * <p>The drops are put into a spatial hash with cells of the size of the merge
+	 * radius, one by one. Every drop is merged into an earlier drop in the 3x3 cells
+	 * around it, if possible, else it's added to the hash. So this is O(drops).</p>
+	 */
+	private void merge() {
+		if (mergeRadius <= 0 || size < 2) {
+			return;
+		}
+		Arrays.fill(cellHead, -1);
+		double radiusSq = mergeRadius * mergeRadius;
+		boolean merged = false;
+		for (int i = 0; i < size; i++) {
+			int cx = (int) Math.floor(midx(i) / mergeRadius);
+			int cy = (int) Math.floor(midy(i) / mergeRadius);
+			int into = -1;
+			for (int ny = cy - 1; ny <= cy + 1 && into < 0; ny++) {
+				for (int nx = cx - 1; nx <= cx + 1 && into < 0; nx++) {
+					for (int j = cellHead[hash(nx, ny)]; j >= 0; j = cellNext[j]) {
+						if (canMerge(j, i, radiusSq)) {
+							into = j;
+							break;
+						}
+					}
+				}
+			}
+			if (into >= 0) {
+				count[into] += count[i];
+				// The stack lives as long as the newest of its drops:
+				time[into] = Math.min(time[into], time[i]);
+				count[i] = 0;
+				merged = true;
+			} else {
+				int cell = hash(cx, cy);
+				cellNext[i] = cellHead[cell];
+				cellHead[cell] = i;
+			}
+		}
+		if (merged) {
+			removeDead();
+		}
+	}
+
+	private boolean canMerge(int into, int i, double radiusSq) {
+		if (item[into] != item[i] || count[into] + count[i] > Item.getStackable(item[i])) {
+			return false;
+		}
+		double distx = midx(into) - midx(i);
+		double disty = midy(into) - midy(i);
+		return distx * distx + disty * disty <= radiusSq;
+	}
+
+	private int hash(int cx, int cy) {
+		return (cx * 73856093 ^ cy * 19349663) & (cellHead.length - 1);
+	}
+
+	/**
+	 * Wakes up all sleeping drops, which intersect the given world-space area,
+	 * for example because the Blocks they lie on changed.
+	 * @param x0 the left border in pixels.
+	 * @param y0 the top border in pixels.
+	 * @param x1 the right border in pixels.
+	 * @param y1 the bottom border in pixels.
+	 */
+	public void wake(double x0, double y0, double x1, double y1) {
+		for (int i = 0; i < size; i++) {
+			if (asleep[i] && x[i] + PIX_SIZE >= x0 && x[i] <= x1 && y[i] + PIX_SIZE >= y0 && y[i] <= y1) {
+				asleep[i] = false;
+			}
+		}
+	}
+
+	/**
+	 * Moves drop i, until it hits a block. Stops the drop's velocity on the axis a block was hit.
+	 * Wakes the drop up, if it was asleep.
+	 * Only touches drop i, so different drops can be moved at the same time.
+	 * @param i the index of the drop.
+	 * @param mx the distance to move along the x axis.
+	 * @param my the distance to move along the y axis.
+	 * @param world the world the drop is in.
+	 */
+	public void move(int i, double mx, double my, World world) {
+		if (Double.isNaN(mx) || Double.isNaN(my) || Double.isInfinite(mx) || Double.isInfinite(my)) {
+			return;
+		}
+		asleep[i] = false;
+		if (mx != 0.0) {
+			double target = x[i] + mx;
+			x[i] = world.sweepBlocks(x[i], y[i], PIX_SIZE, PIX_SIZE, mx, true);
+			if (x[i] != target) {
+				dx[i] = 0.0;
+			}
+		}
+		if (my != 0.0) {
+			double target = y[i] + my;
+			y[i] = world.sweepBlocks(x[i], y[i], PIX_SIZE, PIX_SIZE, my, false);
+			if (y[i] != target) {
+				dy[i] = 0.0;
+			}
+		}
+	}
+
+	/**
+	 * Renders all drops inside of the World's viewport.
+	 * @param world the world the drops are in.
+	 * @param alpha the interpolation factor between the last tick (0) and the current tick (1).
+	 */
+	public void render(World world, double alpha) {
+		Rectangle viewport = world.getViewport();
+		for (int i = 0; i < size; i++) {
+			float rx = (float) (lastx[i] + (x[i] - lastx[i]) * alpha);
+			float ry = (float) (lasty[i] + (y[i] - lasty[i]) * alpha);
+			if (viewport.intersects(rx, ry, PIX_SIZE, PIX_SIZE)) {
+				float light = world.getChunkManager().getLightness(
+						(int)(x[i]/ResLoader.BLOCK_SIZE),
+						(int)(y[i]/ResLoader.BLOCK_SIZE), true);
+				Sprite s = BlockID.itemToSprite(item[i]);
+				s.bind();
+				glColor3f(light, light, light);
+				glBegin(GL_QUADS);
+				{
+					s.glTexCoord(0);
+					glVertex2f(rx, ry);
+					s.glTexCoord(1);
+					glVertex2f(rx+PIX_SIZE, ry);
+					s.glTexCoord(2);
+					glVertex2f(rx+PIX_SIZE, ry+PIX_SIZE);
+					s.glTexCoord(3);
+					glVertex2f(rx, ry+PIX_SIZE);
+				}
+				glEnd();
+				if (count[i] > 1) {
+					GLFont.render(rx, ry + PIX_SIZE, GLFont.ALIGN_LEFT, Integer.toString(count[i]), 8);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the number of drops.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the world-space x position of the middle of drop i.
+	 */
+	public double midx(int i) {
+		return x[i] + PIX_SIZE/2;
+	}
+
+	/**
+	 * @return the world-space y position of the middle of drop i.
+	 */
+	public double midy(int i) {
+		return y[i] + PIX_SIZE/2;
+	}
+
+	/**
+	 * @return the ID of the Item of drop i.
+	 */
+	public int getItem(int i) {
+		return item[i];
+	}
+
+	/**
+	 * @return the number of Items in the stack of drop i.
+	 */
+	public int getCount(int i) {
+		return count[i];
+	}
+
+	/**
+	 * Sets the number of Items in the stack of drop i, for example when
+	 * a player could only collect a part of it.
+	 * @param i the index of the drop.
+	 * @param number the new number of Items. 0 or less removes the drop.
+	 */
+	public void setCount(int i, int number) {
+		if (number <= 0) {
+			remove(i);
+		} else {
+			count[i] = number;
+		}
+	}
+
+	/**
+	 * @return the distance in pixels, within which drops of the same Item are merged.
+	 */
+	public double getMergeRadius() {
+		return mergeRadius;
+	}
+
+	/**
+	 * @param mergeRadius the distance in pixels, within which drops of the
+	 * same Item are merged. 0 disables merging.
+	 */
+	public void setMergeRadius(double mergeRadius) {
+		this.mergeRadius = mergeRadius;
+	}
+
+	/**
+	 * @return whether drop i is asleep, so it isn't moved every tick.
+	 */
+	public boolean isAsleep(int i) {
+		return asleep[i];
+	}
+
+	/**
+	 * @return whether drop i can be collected by players.
+	 */
+	public boolean isCollectable(int i) {
+		return time[i] > invulTime[i];
+	}
+
+	/**
+	 * @return the index of the drop, which exists the longest time.
+	 */
+	private int oldest() {
+		int oldest = 0;
+		for (int i = 1; i < size; i++) {
+			if (time[i] > time[oldest]) {
+				oldest = i;
+			}
+		}
+		return oldest;
+	}
+
+}
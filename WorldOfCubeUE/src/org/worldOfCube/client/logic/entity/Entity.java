@@ -31,19 +31,70 @@ public abstract class Entity implements WorldInputListener {
 	protected double dx;
 	protected double dy;
 	protected double time;
+	protected double lastx;
+	protected double lasty;
+	/** The cell and the slot in the cell of the {@link EntityGrid} this Entity is in, or -1. */
+	int gridCell = -1;
+	int gridSlot = -1;
+	/** The index of this Entity in its {@link EntityList}, or -1. */
+	int listIndex = -1;
 
 	public Entity(double x, double y, double w, double h) {
 		rect = new Rectangle(x, y, w, h);
+		lastx = x;
+		lasty = y;
 	}
 
 	public abstract void tick(double d, World world);
 
+	/**
+	 * <p>Whether {@link #tick(double, World)} may run at the same time as the
+	 * ticks of other Entitys, on another Thread.</p>
+	 * <p>That's the case, if the tick only changes this Entity, and only reads
+	 * the World, so it doesn't add or remove Entitys or spawn drops either.
+	 * Reading input is not safe: LWJGL's input is global state of the display
+	 * Thread, and some of it, like the mouse wheel, is consumed by reading it.
+	 * So only players, which are not {@link EntityPlayer#setControlled(boolean)
+	 * controlled}, are parallel tick safe.</p>
+	 * @return false by default.
+	 */
+	public boolean isParallelTickSafe() {
+		return false;
+	}
+
 	public abstract void render(World world);
 
 	public void afterTick(double delta) {
 		time += delta;
 	}
 
+	/**
+	 * Remembers the current position as the position of the last tick.
+	 * Called by the {@link World} before every tick.
+	 * @see #interpolatedX(double)
+	 * @see #interpolatedY(double)
+	 */
+	public void savePosition() {
+		lastx = rect.x;
+		lasty = rect.y;
+	}
+
+	/**
+	 * @param alpha the interpolation factor between the last tick (0) and the current tick (1).
+	 * @return the x position to render this Entity at.
+	 */
+	public double interpolatedX(double alpha) {
+		return lastx + (rect.x - lastx) * alpha;
+	}
+
+	/**
+	 * @param alpha the interpolation factor between the last tick (0) and the current tick (1).
+	 * @return the y position to render this Entity at.
+	 */
+	public double interpolatedY(double alpha) {
+		return lasty + (rect.y - lasty) * alpha;
+	}
+
 	public double midx() {
 		return rect.x+(rect.w/2);
 	}
@@ -66,6 +117,7 @@ public abstract class Entity implements WorldInputListener {
 		if (moveAxis(dy2, false, world)) {
 			dy = 0.0;
 		}
+		world.updateEntityGrid(this);
 	}
 
 	public boolean positionEmpty(float deltax, float deltay, World world) {
@@ -86,26 +138,22 @@ public abstract class Entity implements WorldInputListener {
 	@Override
 	public void handleMousePosition(int mousex, int mousey, World world) {}
 
+	/**
+	 * Moves along one axis until a block is hit, see {@link World#sweepBlocks(Rectangle, double, boolean)}.
+	 * @return whether a block was hit.
+	 */
 	private boolean moveAxis(double delta, boolean xaxis, World world) {
-		double move = 0.0;
-		while (delta != 0.0) {
-			move = Math.max(-1.0, Math.min(1.0, delta));
-			delta -= move;
-			if (xaxis) {
-				rect.x += move;
-			} else {
-				rect.y += move;
-			}
-			if (colliding(world)) {
-				if (xaxis) {
-					rect.x -= move;
-				} else {
-					rect.y -= move;
-				}
-				return true;
-			}
+		if (delta == 0.0) {
+			return false;
 		}
-		return false;
+		double target = (xaxis ? rect.x : rect.y) + delta;
+		double reached = world.sweepBlocks(rect, delta, xaxis);
+		if (xaxis) {
+			rect.x = reached;
+		} else {
+			rect.y = reached;
+		}
+		return reached != target;
 	}
 
 	public boolean colliding(World world) {
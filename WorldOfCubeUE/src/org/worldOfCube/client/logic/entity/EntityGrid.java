@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.entity;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>A uniform grid of square cells, each holding the {@link Entity}s
+ * whose middle is inside of it.</p>
+ * <p>Range and nearest-neighbor queries only look at the cells near
+ * the queried position, so they cost O(nearby entities) instead of
+ * O(all entities). Adding, removing and moving an Entity is O(1):
+ * every Entity remembers its cell and its slot in that cell.</p>
+ * <p>An Entity can only be in one EntityGrid at a time. Positions outside
+ * of the grid are clamped to the cells at the border.</p>
+ * @author matheusdev
+ *
+ * @param <T> the type of the Entitys in this grid.
+ */
+public class EntityGrid<T extends Entity> {
+
+	private static final Entity[] EMPTY = new Entity[0];
+
+	private final double cellSize;
+	private final int cellsx;
+	private final int cellsy;
+	private final Entity[][] cells;
+	private final int[] counts;
+	private int size;
+
+	/**
+	 * @param width the width of the area covered by the grid, in pixels.
+	 * @param height the height of the area covered by the grid, in pixels.
+	 * @param cellSize the size of each cell, in pixels. Usually the size of a Chunk.
+	 */
+	public EntityGrid(double width, double height, double cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("cellSize must be positive, but is " + cellSize);
+		}
+		this.cellSize = cellSize;
+		this.cellsx = Math.max(1, (int) Math.ceil(width / cellSize));
+		this.cellsy = Math.max(1, (int) Math.ceil(height / cellSize));
+		this.cells = new Entity[cellsx * cellsy][];
+		Arrays.fill(cells, EMPTY);
+		this.counts = new int[cellsx * cellsy];
+	}
+
+	/**
+	 * @param e the Entity to add. Must not be in any grid.
+	 * @throws IllegalStateException if the Entity already is in a grid.
+	 */
+	public void add(T e) {
+		if (e.gridCell >= 0) {
+			throw new IllegalStateException("Entity is already in a grid: " + e);
+		}
+		insert(e, cellOf(e.midx(), e.midy()));
+		size++;
+	}
+
+	/**
+	 * @param e the Entity to remove.
+	 * @return whether the Entity was in this grid.
+	 */
+	public boolean remove(T e) {
+		int cell = e.gridCell;
+		if (cell < 0 || cell >= cells.length || cells[cell][e.gridSlot] != e) {
+			return false;
+		}
+		delete(e);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Moves the Entity to the cell of its current position, if it changed.
+	 * Call this after the Entity moved.
+	 * @param e the Entity to update. Does nothing, if it isn't in a grid.
+	 */
+	public void update(T e) {
+		if (e.gridCell < 0) {
+			return;
+		}
+		int cell = cellOf(e.midx(), e.midy());
+		if (cell != e.gridCell) {
+			delete(e);
+			insert(e, cell);
+		}
+	}
+
+	/**
+	 * @return the number of Entitys in this grid.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds every Entity whose middle is within <tt>radius</tt> of (x, y) to <tt>result</tt>.
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param radius the maximum distance of the Entitys middles.
+	 * @param result the list to add the found Entitys to.
+	 * @return the given result list.
+	 */
+	public <L extends List<? super T>> L query(double x, double y, double radius, L result) {
+		double radiusSq = radius * radius;
+		int minx = cellX(x - radius);
+		int maxx = cellX(x + radius);
+		int miny = cellY(y - radius);
+		int maxy = cellY(y + radius);
+		for (int cy = miny; cy <= maxy; cy++) {
+			for (int cx = minx; cx <= maxx; cx++) {
+				int cell = cx + cy * cellsx;
+				Entity[] entitys = cells[cell];
+				for (int i = 0; i < counts[cell]; i++) {
+					Entity e = entitys[i];
+					if (distSq(e, x, y) <= radiusSq) {
+						result.add(castEntity(e));
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>Finds the Entity, whose middle is nearest to (x, y).</p>
+	 * <p>Searches rings of cells around the position, until no unvisited
+	 * cell can contain anything nearer than the nearest found Entity.</p>
+	 * @param x the world-space x position.
+	 * @param y the world-space y position.
+	 * @param maxDist the maximum distance of the Entity's middle.
+	 * Use {@link Double#POSITIVE_INFINITY} for no limit.
+	 * @param exclude an Entity, which should not be found, usually
+	 * the Entity searching for a neighbor. May be null.
+	 * @return the nearest Entity, or null, if there is none within <tt>maxDist</tt>.
+	 */
+	@SuppressWarnings("unchecked")
+	public T nearest(double x, double y, double maxDist, T exclude) {
+		int centerx = cellX(x);
+		int centery = cellY(y);
+		int maxRing = Math.max(Math.max(centerx, cellsx - 1 - centerx), Math.max(centery, cellsy - 1 - centery));
+		double bestSq = maxDist * maxDist;
+		Entity best = null;
+		for (int ring = 0; ring <= maxRing; ring++) {
+			int minx = centerx - ring;
+			int maxx = centerx + ring;
+			int miny = centery - ring;
+			int maxy = centery + ring;
+			for (int cy = Math.max(0, miny); cy <= Math.min(cellsy - 1, maxy); cy++) {
+				boolean edgeRow = cy == miny || cy == maxy;
+				// Only the border of the ring, the inside was visited before:
+				int step = edgeRow ? 1 : maxx - minx;
+				for (int cx = minx; cx <= maxx; cx += step) {
+					if (cx < 0 || cx >= cellsx) {
+						continue;
+					}
+					int cell = cx + cy * cellsx;
+					Entity[] entitys = cells[cell];
+					for (int i = 0; i < counts[cell]; i++) {
+						Entity e = entitys[i];
+						double dist = distSq(e, x, y);
+						if (dist <= bestSq && e != exclude) {
+							bestSq = dist;
+							best = e;
+						}
+					}
+				}
+			}
+			// The distance from (x, y) to the nearest point outside the visited cells:
+			double outside = Math.min(
+					Math.min(x - minx * cellSize, (maxx + 1) * cellSize - x),
+					Math.min(y - miny * cellSize, (maxy + 1) * cellSize - y));
+			if (outside > 0 && outside * outside >= bestSq) {
+				break;
+			}
+		}
+		return (T) best;
+	}
+
+	private void insert(Entity e, int cell) {
+		Entity[] entitys = cells[cell];
+		int count = counts[cell];
+		if (count == entitys.length) {
+			entitys = cells[cell] = Arrays.copyOf(entitys, Math.max(4, count * 2));
+		}
+		entitys[count] = e;
+		e.gridCell = cell;
+		e.gridSlot = count;
+		counts[cell] = count + 1;
+	}
+
+	/**
+	 * Removes the Entity from its cell by moving the last Entity of the cell into its slot.
+	 */
+	private void delete(Entity e) {
+		int cell = e.gridCell;
+		Entity[] entitys = cells[cell];
+		int last = --counts[cell];
+		Entity moved = entitys[last];
+		entitys[e.gridSlot] = moved;
+		moved.gridSlot = e.gridSlot;
+		entitys[last] = null;
+		e.gridCell = -1;
+		e.gridSlot = -1;
+	}
+
+	private int cellOf(double x, double y) {
+		return cellX(x) + cellY(y) * cellsx;
+	}
+
+	private int cellX(double x) {
+		return Math.max(0, Math.min(cellsx - 1, (int) Math.floor(x / cellSize)));
+	}
+
+	private int cellY(double y) {
+		return Math.max(0, Math.min(cellsy - 1, (int) Math.floor(y / cellSize)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private T castEntity(Entity e) {
+		return (T) e;
+	}
+
+	private static double distSq(Entity e, double x, double y) {
+		double dx = e.midx() - x;
+		double dy = e.midy() - y;
+		return dx * dx + dy * dy;
+	}
+
+}
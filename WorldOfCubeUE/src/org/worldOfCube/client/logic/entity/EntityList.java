@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.logic.entity;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * <p>A densely packed list of {@link Entity}s with O(1) removal.</p>
+ * <p>Every Entity remembers its index in the list, so it can be found
+ * without searching, and is removed by moving the last Entity
+ * into its place. So the order of the Entitys changes on removal.</p>
+ * <p>An Entity can only be in one EntityList at a time. Use it like
+ * an array (with {@link #get(int)} and {@link #size()}), the list must
+ * not be changed while iterating over it.</p>
+ * @author matheusdev
+ *
+ */
+public class EntityList extends AbstractList<Entity> implements RandomAccess {
+
+	private Entity[] entitys = new Entity[16];
+	private int size;
+
+	/**
+	 * @param e the Entity to add.
+	 * @return true.
+	 * @throws IllegalStateException if the Entity is already in an EntityList.
+	 */
+	@Override
+	public boolean add(Entity e) {
+		if (e.listIndex >= 0) {
+			throw new IllegalStateException("Entity is already in a list: " + e);
+		}
+		if (size == entitys.length) {
+			entitys = Arrays.copyOf(entitys, size * 2);
+		}
+		e.listIndex = size;
+		entitys[size++] = e;
+		return true;
+	}
+
+	/**
+	 * Removes the Entity in O(1).
+	 * @param o the Entity to remove.
+	 * @return whether the Entity was in this list.
+	 */
+	@Override
+	public boolean remove(Object o) {
+		if (!contains(o)) {
+			return false;
+		}
+		Entity e = (Entity) o;
+		int i = e.listIndex;
+		Entity last = entitys[--size];
+		entitys[i] = last;
+		last.listIndex = i;
+		entitys[size] = null;
+		e.listIndex = -1;
+		return true;
+	}
+
+	/**
+	 * @return whether the Object is an Entity in this list. O(1).
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Entity)) {
+			return false;
+		}
+		int i = ((Entity) o).listIndex;
+		return i >= 0 && i < size && entitys[i] == o;
+	}
+
+	@Override
+	public Entity get(int index) {
+		if (index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return entitys[index];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+}
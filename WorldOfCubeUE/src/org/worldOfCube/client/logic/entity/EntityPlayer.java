@@ -31,7 +31,6 @@ import org.worldOfCube.client.logic.entity.components.ComponentInventory;
 import org.worldOfCube.client.logic.inventory.Inventory;
 import org.worldOfCube.client.res.ResLoader;
 import org.worldOfCube.client.util.vecmath.FastMath;
-import org.worldOfCube.client.util.vecmath.Vec;
 
 public class EntityPlayer extends Entity {
 
@@ -39,6 +38,8 @@ public class EntityPlayer extends Entity {
 	public static final int LEFT = 0;
 	public static final int RIGHT = 1;
 	public static final int FLY_SPEED = 8;
+	public static final int WIDTH = 24;
+	public static final int HEIGHT = 40;
 
 	private double speed = 180.0;
 	private boolean onBottom;
@@ -61,6 +62,7 @@ public class EntityPlayer extends Entity {
 	private float legFrontTime = 0f;
 	private float legBackTime = (float)Math.PI;
 	private boolean godmode = false;
+	private boolean controlled = true;
 	private final String name;
 	private double lastMouseX;
 	private double lastMouseY;
@@ -68,7 +70,7 @@ public class EntityPlayer extends Entity {
 	private ComponentInventory compInv;
 
 	public EntityPlayer(double x, double y, String name) {
-		super(x, y, 24, 40);
+		super(x, y, WIDTH, HEIGHT);
 		this.name = name;
 		body.setRotation(0f);
 		skel.setDebug(false);
@@ -80,16 +82,16 @@ public class EntityPlayer extends Entity {
 		if (godmode) {
 			dx = 0;
 			dy = 0;
-			if (InputManager.down("up")) {
+			if (down("up")) {
 				dy = -FLY_SPEED;
 			}
-			if (InputManager.down("down")) {
+			if (down("down")) {
 				dy = FLY_SPEED;
 			}
-			if (InputManager.down("left")) {
+			if (down("left")) {
 				dx = -FLY_SPEED;
 			}
-			if (InputManager.down("right")) {
+			if (down("right")) {
 				dx = FLY_SPEED;
 			}
 			rect.x += dx;
@@ -106,8 +108,7 @@ public class EntityPlayer extends Entity {
 
 		skel.tick(rect.x+13f, rect.y+6f+(moving && onBottom ? (float)Math.sin(time) : 0f));
 
-		Vec v = new Vec(skel.getX(), skel.getY(), lastMouseX, lastMouseY);
-		double heading = FastMath.atan2Deg(v.x, v.y);
+		double heading = FastMath.atan2Deg(lastMouseX-skel.getX(), lastMouseY-skel.getY());
 		arm.setRotation((dir == RIGHT ? heading : 360f-heading));
 
 		if (onBottom && moving) {
@@ -124,10 +125,48 @@ public class EntityPlayer extends Entity {
 			legFront.setRotation(0f);
 			legBack.setRotation(0f);
 		}
-		compInv.tick(delta);
+		if (controlled) {
+			compInv.tick(delta);
+		}
 		afterTick(delta);
 	}
 
+	/**
+	 * A player, which is not controlled, reads no input while ticking, and only
+	 * moves itself, so it can be ticked in parallel with other players.
+	 * @return whether this player is not {@link #setControlled(boolean) controlled}.
+	 */
+	@Override
+	public boolean isParallelTickSafe() {
+		return !controlled;
+	}
+
+	/**
+	 * @return whether the key is down, and this player is controlled by the keyboard.
+	 * @see InputManager#down(String)
+	 */
+	private boolean down(String key) {
+		return controlled && InputManager.down(key);
+	}
+
+	/**
+	 * @return whether this player is controlled by the keyboard and mouse of this machine.
+	 */
+	public boolean isControlled() {
+		return controlled;
+	}
+
+	/**
+	 * Players, which are not controlled by the keyboard and mouse of this
+	 * machine, don't read any input while ticking, so they can be ticked
+	 * without display, for example on a headless machine. Their inventory
+	 * is not ticked either, as it only reacts to input.
+	 * @param controlled whether this player is controlled by the keyboard and mouse of this machine.
+	 */
+	public void setControlled(boolean controlled) {
+		this.controlled = controlled;
+	}
+
 	public Inventory getInventory() {
 		return compInv.getInv();
 	}
@@ -143,15 +182,15 @@ public class EntityPlayer extends Entity {
 			dy = 0;
 			onBottom = true;
 		}
-		if (InputManager.down("up") && onBottom) {
+		if (down("up") && onBottom) {
 			dy = -JUMP_SPEED;
 			onBottom = false;
 		}
-		if (InputManager.down("right")) {
+		if (down("right")) {
 			dx = speed;
 			dir = RIGHT;
 			moving = true;
-		} else if (InputManager.down("left")) {
+		} else if (down("left")) {
 			dx = -speed;
 			dir = LEFT;
 			moving = true;
@@ -175,8 +214,13 @@ public class EntityPlayer extends Entity {
 		}
 	}
 
-	public boolean collect(EntityDrop drop) {
-		return compInv.add(drop.getItem());
+	/**
+	 * @param itemID the ID of the Item to put into the inventory.
+	 * @param number the number of Items to put into the inventory.
+	 * @return the number of Items, for which the inventory had no space.
+	 */
+	public int collect(int itemID, int number) {
+		return compInv.add(itemID, number);
 	}
 
 	@Override
@@ -50,10 +50,33 @@ public class ComponentInventory {
 	}
 
 	public boolean add(Item item) {
-		ItemStack stack = new ItemStack(item, 1);
+		return add(item, 1) == 0;
+	}
+
+	/**
+	 * Adds Items, but only creates the Item, if there is space for it,
+	 * so trying to add to a full inventory allocates nothing.
+	 * @param itemID the ID of the Item to add.
+	 * @param number the number of Items to add.
+	 * @return the number of Items, which did not fit into the inventory.
+	 */
+	public int add(int itemID, int number) {
+		if (!inv.getSelector().canStore(itemID) && !inv.getStorage().canStore(itemID)) {
+			return number;
+		}
+		return add(new Item(itemID), number);
+	}
+
+	/**
+	 * @param item the Item to add.
+	 * @param number the number of Items to add.
+	 * @return the number of Items, which did not fit into the inventory.
+	 */
+	public int add(Item item, int number) {
+		ItemStack stack = new ItemStack(item, number);
 		stack = inv.getSelector().store(stack);
 		stack = inv.getStorage().store(stack);
-		return stack == null;
+		return stack == null ? 0 : stack.getNumber();
 	}
 
 }
@@ -108,6 +108,19 @@ public class InventorySelector {
 		}
 	}
 
+	/**
+	 * @param itemID the ID of the Item.
+	 * @return whether {@link #store(ItemStack)} would take any Items of that ID.
+	 */
+	public boolean canStore(int itemID) {
+		for (int i = 0; i < slots.length; i++) {
+			if (slots[i].canStore(itemID)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public ItemStack store(ItemStack s) {
 		if (s == null) {
 			return null;
@@ -64,6 +64,14 @@ public class ItemSlot {
 		}
 	}
 
+	/**
+	 * @param itemID the ID of the Item.
+	 * @return whether {@link #store(ItemStack)} would take any Items of that ID.
+	 */
+	public boolean canStore(int itemID) {
+		return stack == null || stack.canStore(itemID);
+	}
+
 	public ItemStack store(ItemStack s) {
 		if (s == null) {
 			return null;
@@ -52,6 +52,14 @@ public class ItemStack {
 		glPopMatrix();
 	}
 
+	/**
+	 * @param itemID the ID of the Item.
+	 * @return whether {@link #store(ItemStack)} would take any Items of that ID.
+	 */
+	public boolean canStore(int itemID) {
+		return itemID == item.getID() && num < Item.getStackable(itemID);
+	}
+
 	public ItemStack store(ItemStack s) {
 		if (s == null) {
 			return null;
@@ -86,6 +86,21 @@ public class Storage {
 		}
 	}
 
+	/**
+	 * @param itemID the ID of the Item.
+	 * @return whether {@link #store(ItemStack)} would take any Items of that ID.
+	 */
+	public boolean canStore(int itemID) {
+		for (int x = 0; x < slots.length; x++) {
+			for (int y = 0; y < slots[x].length; y++) {
+				if (slots[x][y] == null || slots[x][y].canStore(itemID)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
 	public ItemStack store(ItemStack s) {
 		for (int x = 0; x < slots.length; x++) {
 			for (int y = 0; y < slots[x].length; y++) {
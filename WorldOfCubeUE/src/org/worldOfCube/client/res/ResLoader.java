@@ -138,8 +138,16 @@ public final class ResLoader {
 		WOOD;
 	}
 
+	/*
+	 * Texture coordinates of every block sprite, four floats (u, v, s, t)
+	 * per sprite, laid out like the sprites on the block sheet, so the
+	 * offset of a sprite is getIndex(block, borderID) * UV_STRIDE.
+	 */
+	public static final int UV_STRIDE = 4;
+
 	private static SpriteSheet[] sheets = new SpriteSheet[Sheets.values().length];
-	private static BlockVAO[] blocks = new BlockVAO[Blocks.values().length];
+	private static BlockVAO[] blocks = new BlockVAO[Blocks.values().length * TileTypes.values().length];
+	private static float[] blockUVs = new float[Blocks.values().length * TileTypes.values().length * UV_STRIDE];
 
 	public static UniTexture guiBackground;
 	// Titlescreen-Background
@@ -152,6 +160,7 @@ public final class ResLoader {
 		//TODO: Blocks: Add to sheet, give sprites.
 		sheets[Sheets.BLOCKS.ordinal()] = new SpriteSheet(res + "blocks/blocks.png", Blocks.values().length * TileTypes.values().length, StateManager.isUsingTexRect());
 		splitUpBlocks(sheets[Sheets.BLOCKS.ordinal()]);
+		computeBlockUVs(sheets[Sheets.BLOCKS.ordinal()]);
 
 		loadBlockRenderers();
 
@@ -263,9 +272,25 @@ public final class ResLoader {
 		return (block.ordinal() * TileTypes.values().length) + borderID;
 	}
 
+	/**
+	 * Copies the texture coordinates of all block sprites into
+	 * {@link #blockUVs}, so the world renderer can look them up
+	 * by (block type, borderID) without going through {@link Sprite}s.
+	 * @param sheet the block SpriteSheet, after it was split up.
+	 */
+	private static void computeBlockUVs(SpriteSheet sheet) {
+		for (int i = 0; i < sheet.getSpriteNum(); i++) {
+			Sprite sprite = sheet.getSprite(i);
+			blockUVs[i * UV_STRIDE + 0] = sprite.getCoord(0, true);
+			blockUVs[i * UV_STRIDE + 1] = sprite.getCoord(0, false);
+			blockUVs[i * UV_STRIDE + 2] = sprite.getCoord(2, true);
+			blockUVs[i * UV_STRIDE + 3] = sprite.getCoord(2, false);
+		}
+	}
+
 	private static void loadBlockRenderers() {
-		for (int i = 0; i < Blocks.values().length; i++) {
-			blocks[i] = new BlockVAO(i);
+		for (int i = 0; i < blocks.length; i++) {
+			blocks[i] = new BlockVAO(i * UV_STRIDE);
 		}
 	}
 
@@ -334,12 +359,46 @@ public final class ResLoader {
 		return sheets[Sheets.BLOCKS.ordinal()].getSprite(getIndex(block, borderID));
 	}
 
+	/**
+	 * @param sheet the sprite sheet.
+	 * @param sprite the index of the sprite on the sheet.
+	 * @return the sprite, or null, if the resources were not loaded (without display).
+	 */
 	public static Sprite get(Sheets sheet, int sprite) {
-		return sheets[sheet.ordinal()].getSprite(sprite);
+		SpriteSheet s = sheets[sheet.ordinal()];
+		return s == null ? null : s.getSprite(sprite);
 	}
 
-	public static BlockVAO getBlockRenderer(int borderID) {
-		return blocks[borderID];
+	public static BlockVAO getBlockRenderer(Blocks block, int borderID) {
+		return blocks[getIndex(block, borderID)];
+	}
+
+	/**
+	 * <p>Returns the precomputed texture coordinates of all block sprites.</p>
+	 * <p>The array must not be modified. Use {@link #getUVOffset(Blocks, int)}
+	 * to find the (u, v, s, t) quadruple of a specific block sprite.</p>
+	 * @return the texture coordinates of all block sprites on the block atlas.
+	 */
+	public static float[] getBlockUVs() {
+		return blockUVs;
+	}
+
+	/**
+	 * @param block the block type.
+	 * @param borderID the borderID ({@link TileTypes} ordinal) of the block.
+	 * @return the offset of the (u, v, s, t) quadruple in {@link #getBlockUVs()}.
+	 */
+	public static int getUVOffset(Blocks block, int borderID) {
+		return getIndex(block, borderID) * UV_STRIDE;
+	}
+
+	/**
+	 * Binds the block atlas, which contains the sprites of all blocks.
+	 * Call this once before rendering chunks, blocks don't bind
+	 * any texture themselves.
+	 */
+	public static void bindBlockAtlas() {
+		sheets[Sheets.BLOCKS.ordinal()].bind();
 	}
 
 	public static SpriteSheet getSheet(Sheets sheet) {
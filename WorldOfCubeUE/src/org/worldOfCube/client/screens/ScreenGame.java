@@ -34,8 +34,14 @@ import org.worldOfCube.client.util.debug.PerfMonitor;
 
 public class ScreenGame extends Screen {
 
+	/** The fixed time step of the world simulation (60 ticks per second). */
+	public static final double TICK_TIME = 1.0 / 60.0;
+	/** Limits the simulated time per frame, so a long hang doesn't cause a "spiral of death". */
+	private static final double MAX_FRAME_TIME = 0.25;
+
 	private SingleWorld world;
 	private double lastDelta;
+	private double accumulator;
 
 	public ScreenGame(UniDisplay display, ClientMain mep, String name) {
 		super(display, mep, ClientMain.BG_R, ClientMain.BG_G, ClientMain.BG_B, 0f);
@@ -47,10 +53,22 @@ public class ScreenGame extends Screen {
 		this.world = world;
 	}
 
+	/**
+	 * <p>Ticks the world with a fixed time step of {@link #TICK_TIME},
+	 * as often as needed to catch up with the real time passed.</p>
+	 * <p>The remaining time is given to the world as interpolation factor
+	 * for rendering, so movement still looks smooth with frame rates,
+	 * which are not equal to the tick rate.</p>
+	 */
 	@Override
 	public void tick() {
-		lastDelta = getDelta();
-		world.tick(lastDelta, display);
+		lastDelta = Math.min(MAX_FRAME_TIME, getDelta());
+		accumulator += lastDelta;
+		while (accumulator >= TICK_TIME) {
+			world.tick(TICK_TIME, display);
+			accumulator -= TICK_TIME;
+		}
+		world.setInterpolation(accumulator / TICK_TIME);
 	}
 
 	@Override
@@ -36,6 +36,7 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 	private BoxOptions buttonBlockRendering;
 	private BoxOptions buttonDebug;
 	private BoxOptions buttonShowFPS;
+	private BoxOptions buttonMaxFPS;
 	private ScreenPause sp;
 
 	public ScreenOptions(UniDisplay display, ClientMain mep, ScreenPause sp) {
@@ -57,13 +58,19 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 				"   rate to the monitor's\n" +
 				"   refresh-rate.");
 
-		BoxOptionCycle opt2 = new BoxOptionCycle(Config.getRestart("block_rendering").equals("imm") ? 0 : 1, "IMM", "VAO");
+		String blockRendering = Config.getRestart("block_rendering");
+		BoxOptionCycle opt2 = new BoxOptionCycle(
+				blockRendering.equals("imm") ? 0 : blockRendering.equals("vao") ? 1 : 2,
+				"IMM", "VAO", "SHADER");
 		opt2.withInfoText(
 				"Which techneque to use for\n" +
 				"the rendering of Blocks:\n" +
 				" - IMM: Immediate Mode,\n" +
 				"   can be slower or faster.\n" +
 				" - VAO: VertexArrayObjects.\n" +
+				" - SHADER: Static geometry,\n" +
+				"   light from a texture.\n" +
+				"   Needs OpenGL 2.0.\n" +
 				"Options will be applied after\n" +
 				"you restart the game.");
 		buttonBlockRendering = new BoxOptions("Block rendering", opt2, 0.6f);
@@ -101,6 +108,27 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 				"shown in the top right\n" +
 				"corner ingame.");
 
+		String[] maxFPSOptions = new String[] { "30", "60", "120", "240", "off" };
+		int maxFPSSelected = maxFPSOptions.length-1;
+		for (int i = 0; i < maxFPSOptions.length; i++) {
+			if (maxFPSOptions[i].equals(Config.get("max_fps"))) {
+				maxFPSSelected = i;
+			}
+		}
+		BoxOptionCycle opt5 = new BoxOptionCycle(maxFPSSelected, maxFPSOptions);
+		opt5.withInfoText(
+				"The maximum number of\n" +
+				"frames per second. If set\n" +
+				"to \"off\", the game renders\n" +
+				"as fast as it can.");
+		buttonMaxFPS = new BoxOptions("Max FPS", opt5, 0.6f);
+		buttonMaxFPS.withInfoText(
+				"Limits the Frame-rate, so\n" +
+				"the game does not use more\n" +
+				"CPU than needed. The game\n" +
+				"logic always runs at a\n" +
+				"fixed rate.");
+
 		recalcButtons(display.getWidth(), display.getHeight());
 	}
 
@@ -129,6 +157,7 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 		buttonBlockRendering.tick(display);
 		buttonDebug.tick(display);
 		buttonShowFPS.tick(display);
+		buttonMaxFPS.tick(display);
 	}
 
 	@Override
@@ -140,12 +169,14 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 		buttonBlockRendering.render();
 		buttonDebug.render();
 		buttonShowFPS.render();
+		buttonMaxFPS.render();
 
 		buttonBack.renderTwo();
 		buttonVSync.renderTwo();
 		buttonBlockRendering.renderTwo();
 		buttonDebug.renderTwo();
 		buttonShowFPS.renderTwo();
+		buttonMaxFPS.renderTwo();
 		renderCursor();
 	}
 
@@ -160,9 +191,10 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 		mep.setVSync(vsync);
 		Config.set("vsync", vsync ? "on" : "off");
 		Config.setRestart("block_rendering",
-				buttonBlockRendering.getOptionBox().getSelectedOption().equals("IMM") ? "imm" : "vao");
+				buttonBlockRendering.getOptionBox().getSelectedOption().toLowerCase());
 		Config.set("debug", buttonDebug.getOptionBox().getSelectedOption().equals("on") ? "on" : "off");
 		Config.set("show_fps", buttonShowFPS.getOptionBox().getSelectedOption().equals("on") ? "true" : "false");
+		Config.set("max_fps", buttonMaxFPS.getOptionBox().getSelectedOption());
 	}
 
 	@Override
@@ -182,6 +214,7 @@ public class ScreenOptions extends Screen implements BoxLabelListener {
 		buttonBlockRendering.set((int)(0.1*w), (int)(0.3*h), (int)(0.8*w), (int)(0.1*h));
 		buttonDebug.set((int)(0.1*w), (int)(0.4*h), (int)(0.8*w), (int)(0.1*h));
 		buttonShowFPS.set((int)(0.1*w), (int)(0.5*h), (int)(0.8*w), (int)(0.1*h));
+		buttonMaxFPS.set((int)(0.1*w), (int)(0.6*h), (int)(0.8*w), (int)(0.1*h));
 	}
 
 	@Override
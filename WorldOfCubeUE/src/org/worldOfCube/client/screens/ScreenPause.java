@@ -133,6 +133,8 @@ public class ScreenPause extends Screen implements BoxLabelListener {
 
 				@Override
 				public void nextScreen(UniDisplay display, ClientMain mep) {
+					// Called from the rendering Thread, so OpenGL objects can be deleted here:
+					world.getChunkManager().deleteRenderData();
 					mep.setScreen(new ScreenMenu(display, mep));
 				}
 
@@ -35,6 +35,7 @@ import org.worldOfCube.client.screens.gui.BoxInputLabel;
 import org.worldOfCube.client.screens.gui.BoxInputLabelListener;
 import org.worldOfCube.client.screens.gui.BoxLabel;
 import org.worldOfCube.client.screens.gui.BoxLabelListener;
+import org.worldOfCube.client.util.Rand;
 
 public class ScreenWorldCreate extends Screen implements BoxLabelListener, BoxInputLabelListener {
 
@@ -159,9 +160,9 @@ public class ScreenWorldCreate extends Screen implements BoxLabelListener, BoxIn
 					@Override
 					public void run() {
 						if (inputSeed.getText().length() == 0) {
-							world = new SingleWorld(new EntityPlayer(0, 0, "Player"), 32, 64, inputName.getText().toString(), display);
+							world = new SingleWorld(new EntityPlayer(0, 0, WorldSaver.DEFAULT_PLAYER), 32, 64, inputName.getText().toString(), display);
 						} else {
-							world = new SingleWorld(new EntityPlayer(0, 0, "Player"), 32, 64, inputSeed.getText().hashCode(), inputName.getText().toString(), display);
+							world = new SingleWorld(new EntityPlayer(0, 0, WorldSaver.DEFAULT_PLAYER), 32, 64, Rand.parseSeed(inputSeed.getText().toString()), inputName.getText().toString(), display);
 						}
 						generated = true;
 					}
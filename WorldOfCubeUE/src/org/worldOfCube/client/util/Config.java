@@ -140,6 +140,8 @@ public class Config {
 		cfg.put("block_rendering", "imm");
 		cfg.put("debug", "off");
 		cfg.put("show_fps", "false");
+		cfg.put("max_fps", "120");
+		cfg.put("drop_merge_radius", "16");
 		cfgRestart.put("block_rendering", "imm");
 		try {
 			loadFromFile();
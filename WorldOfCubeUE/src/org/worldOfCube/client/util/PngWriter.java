@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * <p>Writes a PNG image (8 bit RGB) strip by strip, so the whole
+ * image never has to be in memory.</p>
+ * <p>A strip is a number of complete raw scanlines, each starting with
+ * its filter type byte (0 for none), followed by 3 bytes per pixel.
+ * The strips of one call to {@link #writeStrips(List)} are compressed
+ * in parallel on the {@link WorkerPool}. Every strip is compressed on its own,
+ * using the end of the strip before as dictionary, and ends with a sync
+ * flush, so the compressed strips simply have to be concatenated.</p>
+ * @author matheusdev
+ *
+ */
+public class PngWriter implements Closeable {
+
+	private static final byte[] SIGNATURE = {
+		(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+	};
+	/** zlib header: deflate, 32K window, default compression. */
+	private static final byte[] ZLIB_HEADER = {
+		0x78, (byte) 0x9C
+	};
+	/** The size of the deflate window. */
+	private static final int DICTIONARY_SIZE = 32 * 1024;
+
+	private final DataOutputStream out;
+	private final int rowBytes;
+	private final int height;
+	private final Adler32 adler = new Adler32();
+	private final CRC32 crc = new CRC32();
+	private byte[] dictionary;
+	private int rowsWritten;
+	private boolean headerWritten;
+
+	/**
+	 * Writes the PNG signature and header.
+	 * @param out the stream to write to. Closed by {@link #close()}.
+	 * @param width the width of the image in pixels.
+	 * @param height the height of the image in pixels.
+	 * @throws IOException if writing fails.
+	 */
+	public PngWriter(OutputStream out, int width, int height) throws IOException {
+		this.out = new DataOutputStream(out);
+		this.rowBytes = 1 + width * 3;
+		this.height = height;
+		this.out.write(SIGNATURE);
+		ByteArrayOutputStream ihdr = new ByteArrayOutputStream(13);
+		DataOutputStream header = new DataOutputStream(ihdr);
+		header.writeInt(width);
+		header.writeInt(height);
+		header.writeByte(8); // Bit depth
+		header.writeByte(2); // Color type: RGB
+		header.writeByte(0); // Compression: deflate
+		header.writeByte(0); // Filter method
+		header.writeByte(0); // No interlace
+		writeChunk("IHDR", ihdr.toByteArray());
+	}
+
+	/**
+	 * @return the number of bytes of a raw scanline, including the filter type byte.
+	 */
+	public int getRowBytes() {
+		return rowBytes;
+	}
+
+	/**
+	 * Compresses the given strips in parallel, and writes them in order.
+	 * @param strips the raw strips, each a multiple of {@link #getRowBytes()} long.
+	 * @throws IOException if writing fails.
+	 * @throws IllegalArgumentException if a strip doesn't contain complete
+	 * scanlines, or there are more rows than the image's height.
+	 */
+	public void writeStrips(List<byte[]> strips) throws IOException {
+		List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>();
+		byte[] dict = dictionary;
+		for (final byte[] strip : strips) {
+			if (strip.length % rowBytes != 0) {
+				throw new IllegalArgumentException("Strip of " + strip.length + " bytes does not contain complete rows of " + rowBytes + " bytes.");
+			}
+			rowsWritten += strip.length / rowBytes;
+			if (rowsWritten > height) {
+				throw new IllegalArgumentException("More rows than the image height " + height);
+			}
+			final byte[] stripDict = dict;
+			tasks.add(new Callable<byte[]>() {
+				@Override
+				public byte[] call() {
+					return compress(strip, stripDict);
+				}
+			});
+			dict = tail(strip, dict);
+		}
+		dictionary = dict;
+
+		List<Future<byte[]>> compressed;
+		try {
+			compressed = WorkerPool.get().invokeAll(tasks);
+			for (int i = 0; i < strips.size(); i++) {
+				adler.update(strips.get(i));
+				writeData(compressed.get(i).get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while compressing.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Compressing failed.", e.getCause());
+		}
+	}
+
+	/**
+	 * Ends the compressed data, writes the end of the image and closes the stream.
+	 * @throws IOException if writing fails, or not all rows were written.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			if (rowsWritten != height) {
+				throw new IOException("Only " + rowsWritten + " of " + height + " rows were written.");
+			}
+			// The last, empty deflate block, and the checksum of the uncompressed data:
+			Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+			deflater.finish();
+			byte[] buf = new byte[64];
+			int len = deflater.deflate(buf);
+			deflater.end();
+			ByteArrayOutputStream end = new ByteArrayOutputStream(len + 4);
+			end.write(buf, 0, len);
+			new DataOutputStream(end).writeInt((int) adler.getValue());
+			writeData(end.toByteArray());
+			writeChunk("IEND", new byte[0]);
+		} finally {
+			out.close();
+		}
+	}
+
+	private void writeData(byte[] data) throws IOException {
+		if (!headerWritten) {
+			byte[] withHeader = new byte[ZLIB_HEADER.length + data.length];
+			System.arraycopy(ZLIB_HEADER, 0, withHeader, 0, ZLIB_HEADER.length);
+			System.arraycopy(data, 0, withHeader, ZLIB_HEADER.length, data.length);
+			data = withHeader;
+			headerWritten = true;
+		}
+		writeChunk("IDAT", data);
+	}
+
+	private void writeChunk(String type, byte[] data) throws IOException {
+		byte[] typeBytes = type.getBytes("US-ASCII");
+		crc.reset();
+		crc.update(typeBytes);
+		crc.update(data);
+		out.writeInt(data.length);
+		out.write(typeBytes);
+		out.write(data);
+		out.writeInt((int) crc.getValue());
+	}
+
+	private static byte[] compress(byte[] strip, byte[] dict) {
+		Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+		try {
+			if (dict != null) {
+				deflater.setDictionary(dict);
+			}
+			deflater.setInput(strip);
+			ByteArrayOutputStream compressed = new ByteArrayOutputStream(strip.length / 4 + 64);
+			byte[] buf = new byte[64 * 1024];
+			int len;
+			do {
+				len = deflater.deflate(buf, 0, buf.length, Deflater.SYNC_FLUSH);
+				compressed.write(buf, 0, len);
+			} while (len == buf.length);
+			return compressed.toByteArray();
+		} finally {
+			deflater.end();
+		}
+	}
+
+	/**
+	 * @return the last {@link #DICTIONARY_SIZE} bytes of everything written
+	 * so far (the previous dictionary followed by the strip).
+	 */
+	private static byte[] tail(byte[] strip, byte[] dict) {
+		if (strip.length >= DICTIONARY_SIZE || dict == null) {
+			return Arrays.copyOfRange(strip, Math.max(0, strip.length - DICTIONARY_SIZE), strip.length);
+		}
+		int fromDict = Math.min(dict.length, DICTIONARY_SIZE - strip.length);
+		byte[] tail = new byte[fromDict + strip.length];
+		System.arraycopy(dict, dict.length - fromDict, tail, 0, fromDict);
+		System.arraycopy(strip, 0, tail, fromDict, strip.length);
+		return tail;
+	}
+
+}
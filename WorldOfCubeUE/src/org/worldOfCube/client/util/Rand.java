@@ -37,4 +37,63 @@ public class Rand {
 		return rand.nextBoolean() ? rand.nextFloat()*range : -rand.nextFloat()*range;
 	}
 
+	/**
+	 * Combines a seed with two values (for example coordinates) to a new seed.
+	 * Different values result in unrelated seeds, so this can be used to give
+	 * every chunk its own random stream, which does not depend on the order
+	 * (or the Thread) the chunks are generated in.
+	 * @param seed the base seed.
+	 * @param a the first value.
+	 * @param b the second value.
+	 * @return the combined seed.
+	 */
+	public static long mix(long seed, long a, long b) {
+		return mix(mix(seed, a), b);
+	}
+
+	/**
+	 * Combines a seed with a value to a new seed. <tt>mix(mix(seed, a), b)</tt>
+	 * is the same as <tt>mix(seed, a, b)</tt>, so the first step can be reused
+	 * for many values of b.
+	 * @param seed the base seed.
+	 * @param a the value.
+	 * @return the combined seed.
+	 */
+	public static long mix(long seed, long a) {
+		return scramble(seed + a * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * <p>Converts a seed, entered by the user, to the seed of a world.</p>
+	 * <p>Numbers are used as they are, so the seed "42" is the seed 42.
+	 * Any other text is hashed to a 64 bit value. Unlike {@link String#hashCode()}
+	 * this uses all 64 bits, and is the same on every JVM.</p>
+	 * @param text the entered seed.
+	 * @return the world seed.
+	 */
+	public static long parseSeed(String text) {
+		String trimmed = text.trim();
+		try {
+			return Long.parseLong(trimmed);
+		} catch (NumberFormatException e) {
+			long hash = trimmed.length();
+			for (int i = 0; i < trimmed.length(); i++) {
+				hash = mix(hash, trimmed.charAt(i));
+			}
+			return hash;
+		}
+	}
+
+	/**
+	 * The SplitMix64 finalizer. Spreads the bits of <tt>z</tt>,
+	 * so similar inputs give very different outputs.
+	 * @param z the value to scramble.
+	 * @return the scrambled value.
+	 */
+	public static long scramble(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
 }
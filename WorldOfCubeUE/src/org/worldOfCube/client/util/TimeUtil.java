@@ -21,12 +21,15 @@
  */
 package org.worldOfCube.client.util;
 
-import org.lwjgl.Sys;
-
 public class TimeUtil {
 
+	/**
+	 * Uses System.nanoTime(), so it works without the LWJGL natives,
+	 * for example in the headless world generator.
+	 * @return a monotonic time in milliseconds.
+	 */
 	public static long ms() {
-		return ((Sys.getTime()*1000)/Sys.getTimerResolution());
+		return System.nanoTime() / 1000000L;
 	}
 
 }
@@ -21,8 +21,6 @@
  */
 package org.worldOfCube.client.util;
 
-import org.lwjgl.Sys;
-
 public class Timer {
 
 	private long t1;
@@ -40,7 +38,7 @@ public class Timer {
 	}
 
 	public static long getMS() {
-		return (Sys.getTime()*1000)/Sys.getTimerResolution();
+		return TimeUtil.ms();
 	}
 
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.worldOfCube.client.util.debug.Allocations;
+
+/**
+ * <p>Holds the fork/join pool shared by everything, that
+ * splits work across all cores (world generation, map export, ...).
+ * Work done every tick is split with a {@link ParallelRange}.</p>
+ * <p>The pool's threads are daemon threads, so they don't keep
+ * the game running after the main loop ended. They are tracked by
+ * {@link Allocations}, so their allocations can be measured.</p>
+ * @author matheusdev
+ *
+ */
+public final class WorkerPool {
+
+	private static ForkJoinPool pool;
+	private static int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private WorkerPool() {
+	}
+
+	/**
+	 * @return the shared fork/join pool. It is created the first time
+	 * this is called, with one worker per available processor, if not
+	 * {@link #setParallelism(int) set} otherwise.
+	 */
+	public static synchronized ForkJoinPool get() {
+		if (pool == null) {
+			pool = new ForkJoinPool(parallelism, new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+				@Override
+				public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+					return new WorkerThread(pool);
+				}
+			}, null, false);
+		}
+		return pool;
+	}
+
+	/**
+	 * Sets the number of worker threads. If the pool exists already, it's
+	 * shut down (running tasks still finish), and the next call of
+	 * {@link #get()} creates a new one.
+	 * @param parallelism the number of worker threads. At least 1.
+	 */
+	public static synchronized void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("Parallelism must be at least 1, but is " + parallelism);
+		}
+		WorkerPool.parallelism = parallelism;
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * @return the number of worker threads of the shared pool.
+	 */
+	public static int getParallelism() {
+		return get().getParallelism();
+	}
+
+	/**
+	 * An action on a range of indices, see {@link ParallelRange}.
+	 */
+	public interface RangeAction {
+		/**
+		 * @param begin the first index (inclusive).
+		 * @param end the last index (exclusive).
+		 */
+		public void run(int begin, int end);
+	}
+
+	/**
+	 * <p>Runs a {@link RangeAction} on ranges of indices in parallel on the pool.
+	 * It reuses its fork/join tasks, so running it allocates nothing in steady
+	 * state. Meant for work done every tick.</p>
+	 * <p>The range is split into parts of <tt>threshold</tt> indices. The calling
+	 * Thread and up to one helper task per worker take the next part, until all
+	 * parts are taken, and the calling Thread waits for the parts the helpers
+	 * are still running. A helper, which is still queued from a previous run,
+	 * just helps with the next run, when it starts.</p>
+	 * <p>A ParallelRange must not be run by several Threads at the same time.</p>
+	 */
+	public static final class ParallelRange {
+
+		private final int threshold;
+		private final RangeAction action;
+		private Helper[] helpers = new Helper[0];
+
+		/*
+		 * The current run. claims holds the number of the run in the upper
+		 * and the next part in the lower 32 bits. The range of the run is
+		 * only changed, after all its parts are done. It's guarded by
+		 * paramsRun (like a sequence lock, so all of it is volatile), so helpers,
+		 * which claimed a part of an old run, notice that the range belongs
+		 * to another run.
+		 */
+		private int run = 0;
+		private volatile int begin;
+		private volatile int end;
+		private volatile int parts;
+		private volatile int paramsRun = 0;
+		private final AtomicLong claims = new AtomicLong();
+		private final AtomicInteger doneParts = new AtomicInteger();
+		private volatile Throwable failure;
+
+		/**
+		 * @param threshold the maximum number of indices per part.
+		 * @param action the action to run. Parts may run at the same time.
+		 */
+		public ParallelRange(int threshold, RangeAction action) {
+			if (threshold < 1) {
+				throw new IllegalArgumentException("Threshold must be at least 1, but is " + threshold);
+			}
+			this.threshold = threshold;
+			this.action = action;
+		}
+
+		/**
+		 * Runs the action on the indices [begin, end). If there are not more than
+		 * <tt>threshold</tt> indices, it's run on the calling Thread only.
+		 * @param begin the first index (inclusive).
+		 * @param end the last index (exclusive).
+		 */
+		public void run(int begin, int end) {
+			if (end - begin <= threshold) {
+				if (end > begin) {
+					action.run(begin, end);
+				}
+				return;
+			}
+			run++;
+			paramsRun = -1;
+			this.begin = begin;
+			this.end = end;
+			parts = (int) (((long) end - begin + threshold - 1) / threshold);
+			failure = null;
+			doneParts.set(0);
+			paramsRun = run;
+			claims.set((long) run << 32);
+
+			ForkJoinPool pool = get();
+			int helperCount = Math.min(parts - 1, pool.getParallelism());
+			if (helpers.length < helperCount) {
+				Helper[] newHelpers = new Helper[helperCount];
+				System.arraycopy(helpers, 0, newHelpers, 0, helpers.length);
+				for (int i = helpers.length; i < helperCount; i++) {
+					newHelpers[i] = new Helper();
+				}
+				helpers = newHelpers;
+			}
+			for (int i = 0; i < helperCount; i++) {
+				// Helpers still queued from an earlier run help with this one, when they start:
+				if (helpers[i].isDone()) {
+					helpers[i].reinitialize();
+					pool.execute(helpers[i]);
+				}
+			}
+
+			runParts();
+			// The remaining parts are already running on helpers, so this is short:
+			while (doneParts.get() < parts) {
+				Thread.yield();
+			}
+
+			Throwable t = failure;
+			if (t != null) {
+				failure = null;
+				if (t instanceof RuntimeException) throw (RuntimeException) t;
+				if (t instanceof Error) throw (Error) t;
+				throw new IllegalStateException(t);
+			}
+		}
+
+		/**
+		 * Runs parts of the current run, until none is left.
+		 */
+		private void runParts() {
+			while (true) {
+				long claim = claims.getAndIncrement();
+				int claimRun = (int) (claim >>> 32);
+				int part = (int) claim;
+				int runBefore = paramsRun;
+				int partBegin = begin + part * threshold;
+				int partEnd = Math.min(end, partBegin + threshold);
+				boolean valid = part >= 0 && part < parts;
+				if (runBefore != claimRun || paramsRun != claimRun || !valid) {
+					// Nothing left, or the claim belongs to a run, which is over:
+					return;
+				}
+				try {
+					action.run(partBegin, partEnd);
+				} catch (Throwable t) {
+					failure = t;
+				} finally {
+					doneParts.incrementAndGet();
+				}
+			}
+		}
+
+		private class Helper extends RecursiveAction {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				runParts();
+			}
+		}
+	}
+
+	/**
+	 * A worker of the pool, which tracks its allocations in {@link Allocations}.
+	 */
+	private static class WorkerThread extends ForkJoinWorkerThread {
+
+		WorkerThread(ForkJoinPool pool) {
+			super(pool);
+		}
+
+		@Override
+		protected void onStart() {
+			super.onStart();
+			Allocations.trackThread();
+		}
+
+		@Override
+		protected void onTermination(Throwable exception) {
+			Allocations.untrackThread();
+			super.onTermination(exception);
+		}
+	}
+
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util.debug;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * <p>Measures how many bytes were allocated on the heap.</p>
+ * <p>{@link #allocatedBytes()} counts the calling Thread and the Threads,
+ * which {@link #trackThread() track} themselves, which are the workers of the
+ * {@link org.worldOfCube.client.util.WorkerPool}. Tracked Threads add their
+ * bytes to a total, when they exit, so their allocations are not lost.
+ * Other Threads (rendering, light updates, ...) are not counted.</p>
+ * <p>Uses the HotSpot extension of the {@link ThreadMXBean}, so on other
+ * JVMs {@link #isSupported()} is false and {@link #allocatedBytes()}
+ * returns -1.</p>
+ * @author matheusdev
+ *
+ */
+public final class Allocations {
+
+	private static final com.sun.management.ThreadMXBean bean;
+
+	static {
+		ThreadMXBean mx = ManagementFactory.getThreadMXBean();
+		com.sun.management.ThreadMXBean hotspot = null;
+		if (mx instanceof com.sun.management.ThreadMXBean) {
+			hotspot = (com.sun.management.ThreadMXBean) mx;
+			if (hotspot.isThreadAllocatedMemorySupported()) {
+				hotspot.setThreadAllocatedMemoryEnabled(true);
+			} else {
+				hotspot = null;
+			}
+		}
+		bean = hotspot;
+	}
+
+	private static final Object lock = new Object();
+	private static Thread[] tracked = new Thread[8];
+	private static int trackedCount = 0;
+	private static long untrackedBytes = 0;
+
+	private Allocations() {
+	}
+
+	/**
+	 * @return whether allocations can be measured on this JVM.
+	 */
+	public static boolean isSupported() {
+		return bean != null;
+	}
+
+	/**
+	 * <p>Counts the allocations of the calling Thread in {@link #allocatedBytes()},
+	 * until it calls {@link #untrackThread()}.</p>
+	 * <p>Called by the workers of the {@link org.worldOfCube.client.util.WorkerPool}, when they start.</p>
+	 */
+	public static void trackThread() {
+		synchronized (lock) {
+			if (trackedCount == tracked.length) {
+				Thread[] newTracked = new Thread[trackedCount * 2];
+				System.arraycopy(tracked, 0, newTracked, 0, trackedCount);
+				tracked = newTracked;
+			}
+			tracked[trackedCount++] = Thread.currentThread();
+		}
+	}
+
+	/**
+	 * Stops tracking the calling Thread, and keeps its allocations in
+	 * {@link #allocatedBytes()}. Called by Threads, right before they exit.
+	 */
+	public static void untrackThread() {
+		Thread current = Thread.currentThread();
+		synchronized (lock) {
+			for (int i = 0; i < trackedCount; i++) {
+				if (tracked[i] == current) {
+					long bytes = allocatedBytesOfThread();
+					if (bytes > 0) {
+						untrackedBytes += bytes;
+					}
+					tracked[i] = tracked[--trackedCount];
+					tracked[trackedCount] = null;
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return the bytes allocated so far by the calling Thread and all
+	 * {@link #trackThread() tracked} Threads, including the ones, which already
+	 * exited, or -1, if not supported. Only the difference of two calls is meaningful.
+	 */
+	public static long allocatedBytes() {
+		if (bean == null) {
+			return -1;
+		}
+		Thread current = Thread.currentThread();
+		synchronized (lock) {
+			long sum = untrackedBytes;
+			boolean currentTracked = false;
+			for (int i = 0; i < trackedCount; i++) {
+				currentTracked |= tracked[i] == current;
+				long bytes = bean.getThreadAllocatedBytes(tracked[i].getId());
+				if (bytes > 0) {
+					sum += bytes;
+				}
+			}
+			if (!currentTracked) {
+				sum += allocatedBytesOfThread();
+			}
+			return sum;
+		}
+	}
+
+	/**
+	 * @return the bytes allocated by the current Thread so far, or -1, if not supported.
+	 */
+	public static long allocatedBytesOfThread() {
+		if (bean == null) {
+			return -1;
+		}
+		return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+}
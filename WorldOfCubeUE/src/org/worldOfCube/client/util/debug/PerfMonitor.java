@@ -21,60 +21,100 @@
  */
 package org.worldOfCube.client.util.debug;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-
-import org.lwjgl.Sys;
 import org.worldOfCube.client.res.GLFont;
+import org.worldOfCube.client.util.TimeUtil;
 
+/**
+ * <p>Measures the time and the heap allocations of named profiles, and
+ * renders the results of the last run of every profile.</p>
+ * <p>Allocations are counted on the Thread calling {@link #startProfile(String)}
+ * and {@link #stopProfile(String)} (see {@link Allocations}), so work handed to
+ * other Threads is not included. The profiles are kept in primitive arrays,
+ * so profiling doesn't allocate itself.</p>
+ * @author matheusdev
+ *
+ */
 public class PerfMonitor {
 
 	private static PerfMonitor instance;
+	private static volatile boolean enabled = true;
 
-	private long actTime;
-	private List<String> current = new ArrayList<String>();
-	private HashMap<String, Long> profiles = new HashMap<String, Long>();
+	private String[] names = new String[8];
+	private boolean[] running = new boolean[8];
+	private long[] startTime = new long[8];
+	private long[] startBytes = new long[8];
+	private long[] time = new long[8];
+	private long[] bytes = new long[8];
+	private int count = 0;
 	private float offsetx = 10f;
 	private float offsety = 400f;
 	private int longestString = 0;
 
+	private int indexOf(String name) {
+		for (int i = 0; i < count; i++) {
+			if (names[i].equals(name)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private int add(String name) {
+		if (count == names.length) {
+			int size = count * 2;
+			String[] newNames = new String[size];
+			System.arraycopy(names, 0, newNames, 0, count);
+			names = newNames;
+			boolean[] newRunning = new boolean[size];
+			System.arraycopy(running, 0, newRunning, 0, count);
+			running = newRunning;
+			startTime = grow(startTime, size);
+			startBytes = grow(startBytes, size);
+			time = grow(time, size);
+			bytes = grow(bytes, size);
+		}
+		longestString = Math.max(longestString, name.length());
+		names[count] = name;
+		return count++;
+	}
+
+	private long[] grow(long[] array, int size) {
+		long[] newArray = new long[size];
+		System.arraycopy(array, 0, newArray, 0, count);
+		return newArray;
+	}
+
 	private void startProfileInst(String name) {
 		synchronized(this) {
-			longestString = Math.max(longestString, name.length());
-			actTime = ms();
-			current.add(name);
+			int ind = indexOf(name);
+			if (ind < 0) {
+				ind = add(name);
+			}
+			running[ind] = true;
+			startTime[ind] = ms();
+			startBytes[ind] = Allocations.allocatedBytesOfThread();
 		}
 	}
 
 	private void stopProfileInst(String name) {
-		int ind = current.indexOf(name);
-		if (ind >= 0) {
-			synchronized(this) {
-				try {
-					profiles.put(current.get(ind), ms()-actTime);
-					current.remove(name);
-				} catch (Exception e) {
-					current.remove(name);
-				}
+		long stopBytes = Allocations.allocatedBytesOfThread();
+		synchronized(this) {
+			int ind = indexOf(name);
+			if (ind >= 0 && running[ind]) {
+				running[ind] = false;
+				time[ind] = ms()-startTime[ind];
+				bytes[ind] = stopBytes-startBytes[ind];
 			}
 		}
 	}
 
 	private void renderInst() {
 		synchronized(this) {
-			Iterator<Entry<String, Long>> it = profiles.entrySet().iterator();
-			int i = 0;
-			while (it.hasNext()) {
-				@SuppressWarnings("rawtypes")
-				Map.Entry pair = it.next();
-				GLFont.render(offsetx, offsety+i*10, GLFont.ALIGN_LEFT,
-						String.format("%" + String.valueOf(longestString) + "s: %4d ms", pair.getKey(), pair.getValue()),
-						10);
-				i++;
+			for (int i = 0; i < count; i++) {
+				String text = Allocations.isSupported()
+						? String.format("%" + String.valueOf(longestString) + "s: %4d ms %9d B", names[i], time[i], bytes[i])
+						: String.format("%" + String.valueOf(longestString) + "s: %4d ms", names[i], time[i]);
+				GLFont.render(offsetx, offsety+i*10, GLFont.ALIGN_LEFT, text, 10);
 			}
 		}
 	}
@@ -87,15 +127,45 @@ public class PerfMonitor {
 	}
 
 	private static long ms() {
-		return ((Sys.getTime()*1000)/Sys.getTimerResolution());
+		return TimeUtil.ms();
 	}
 
 	public static void startProfile(String name) {
-		inst().startProfileInst(name);
+		if (enabled) {
+			inst().startProfileInst(name);
+		}
 	}
 
 	public static void stopProfile(String name) {
-		inst().stopProfileInst(name);
+		if (enabled) {
+			inst().stopProfileInst(name);
+		}
+	}
+
+	/**
+	 * Disabled, starting and stopping profiles does nothing. Reading the
+	 * allocation counters allocates itself on some JVMs, so measuring
+	 * allocations of profiled code from outside needs the profiling disabled.
+	 * @param enabled whether to profile. true by default.
+	 */
+	public static void setEnabled(boolean enabled) {
+		PerfMonitor.enabled = enabled;
+	}
+
+	/**
+	 * @param name the name of the profile.
+	 * @return the bytes allocated during the last run of the profile,
+	 * or -1, if it didn't run yet or allocations can't be measured.
+	 */
+	public static long getAllocatedBytes(String name) {
+		return inst().getAllocatedBytesInst(name);
+	}
+
+	private long getAllocatedBytesInst(String name) {
+		synchronized(this) {
+			int ind = indexOf(name);
+			return ind < 0 || !Allocations.isSupported() ? -1 : bytes[ind];
+		}
 	}
 
 	public static void render() {
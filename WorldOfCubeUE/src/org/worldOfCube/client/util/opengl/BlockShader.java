@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util.opengl;
+
+import static org.lwjgl.opengl.GL20.glUniform1f;
+import static org.lwjgl.opengl.GL20.glUniform1i;
+
+import org.worldOfCube.client.blocks.Block;
+import org.worldOfCube.client.res.ResLoader;
+import org.worldOfCube.client.util.StateManager;
+
+/**
+ * <p>The GLSL program used by the "shader" block rendering techneque.</p>
+ * <p>Block geometry ({@link ChunkMesh}) only contains positions and
+ * texture coordinates. The light is looked up per fragment from
+ * the Chunk's {@link LightTexture}, using the chunk-space position of the
+ * fragment, so light updates only have to touch the texture.</p>
+ * @author matheusdev
+ *
+ */
+public final class BlockShader {
+
+	private static final String VERTEX_SOURCE =
+			"#version 110\n" +
+			"uniform float lightScale;\n" +
+			"uniform float lightOffset;\n" +
+			"varying vec2 lightCoord;\n" +
+			"varying float background;\n" +
+			"void main() {\n" +
+			"	gl_Position = gl_ModelViewProjectionMatrix * gl_Vertex;\n" +
+			"	gl_TexCoord[0] = vec4(gl_MultiTexCoord0.xy, 0.0, 1.0);\n" +
+			"	background = gl_MultiTexCoord0.z;\n" +
+			"	lightCoord = gl_Vertex.xy * lightScale + lightOffset;\n" +
+			"}\n";
+
+	private static final String FRAGMENT_SOURCE_2D =
+			"#version 110\n" +
+			"#define SAMPLER sampler2D\n" +
+			"#define SAMPLE texture2D\n";
+
+	private static final String FRAGMENT_SOURCE_RECT =
+			"#version 110\n" +
+			"#extension GL_ARB_texture_rectangle : require\n" +
+			"#define SAMPLER sampler2DRect\n" +
+			"#define SAMPLE texture2DRect\n";
+
+	private static final String FRAGMENT_SOURCE =
+			"uniform SAMPLER blocks;\n" +
+			"uniform sampler2D light;\n" +
+			"uniform float bgDivide;\n" +
+			"varying vec2 lightCoord;\n" +
+			"varying float background;\n" +
+			"void main() {\n" +
+			"	float l = min(texture2D(light, lightCoord).r, 1.0);\n" +
+			"	l = mix(l, l / bgDivide, background);\n" +
+			"	vec4 col = SAMPLE(blocks, gl_TexCoord[0].xy);\n" +
+			"	gl_FragColor = vec4(col.rgb * l, col.a);\n" +
+			"}\n";
+
+	private static ShaderProgram program;
+	private static int lightScale;
+	private static int lightOffset;
+
+	private BlockShader() {
+	}
+
+	private static void create() {
+		program = new ShaderProgram(VERTEX_SOURCE,
+				(StateManager.isUsingTexRect() ? FRAGMENT_SOURCE_RECT : FRAGMENT_SOURCE_2D) + FRAGMENT_SOURCE);
+		program.use();
+		glUniform1i(program.getUniform("blocks"), 0);
+		glUniform1i(program.getUniform("light"), LightTexture.TEXTURE_UNIT);
+		glUniform1f(program.getUniform("bgDivide"), Block.BG_DIVIDE);
+		lightScale = program.getUniform("lightScale");
+		lightOffset = program.getUniform("lightOffset");
+		ShaderProgram.useNone();
+	}
+
+	/**
+	 * Activates the block shader for rendering Chunks.
+	 * The program is created the first time this is called.
+	 * @param lightTexSize the size of the Chunks' {@link LightTexture}s,
+	 * which is the chunk size + 1, because it holds a light value per block corner.
+	 */
+	public static void begin(int lightTexSize) {
+		if (program == null) {
+			create();
+		}
+		program.use();
+		// Maps chunk-space pixel positions to the texel centers of the light texture:
+		glUniform1f(lightScale, 1f / (ResLoader.BLOCK_SIZE * lightTexSize));
+		glUniform1f(lightOffset, 0.5f / lightTexSize);
+	}
+
+	/**
+	 * Switches back to the fixed function pipeline.
+	 */
+	public static void end() {
+		ShaderProgram.useNone();
+	}
+
+}
@@ -38,7 +38,11 @@ public class BlockVAO {
 	private FloatBuffer tex;
 	private FloatBuffer col;
 
-	public BlockVAO(int borderID) {
+	/**
+	 * @param uvOffset the offset of the block sprite's texture coordinates
+	 * in {@link ResLoader#getBlockUVs()}.
+	 */
+	public BlockVAO(int uvOffset) {
 		int bs = ResLoader.BLOCK_SIZE;
 
 		vert = BufferUtils.createFloatBuffer(8);
@@ -51,10 +55,15 @@ public class BlockVAO {
 
 		tex = BufferUtils.createFloatBuffer(8);
 		tex.order();
-		tex.put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(0, true)).put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(0, false));
-		tex.put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(1, true)).put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(1, false));
-		tex.put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(2, true)).put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(2, false));
-		tex.put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(3, true)).put(ResLoader.get(ResLoader.Blocks.EARTH, borderID).getCoord(3, false));
+		float[] uvs = ResLoader.getBlockUVs();
+		float u = uvs[uvOffset];
+		float v = uvs[uvOffset + 1];
+		float s = uvs[uvOffset + 2];
+		float t = uvs[uvOffset + 3];
+		tex.put(u).put(v);
+		tex.put(s).put(v);
+		tex.put(s).put(t);
+		tex.put(u).put(t);
 		tex.flip();
 
 		col = BufferUtils.createFloatBuffer(12);
@@ -80,14 +89,14 @@ public class BlockVAO {
 		glTexCoordPointer(2, 0, tex);
 		glColorPointer(3, 0, col);
 
-		glDrawArrays(GL_QUADS, 0, 28);
+		glDrawArrays(GL_QUADS, 0, 4);
 	}
 
 	public void renderWithoutCol() {
 		glVertexPointer(2, 0, vert);
 		glTexCoordPointer(2, 0, tex);
 
-		glDrawArrays(GL_QUADS, 0, 28);
+		glDrawArrays(GL_QUADS, 0, 4);
 	}
 
 }
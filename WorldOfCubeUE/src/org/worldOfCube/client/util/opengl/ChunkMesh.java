@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util.opengl;
+
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_COORD_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
+import static org.lwjgl.opengl.GL11.glTexCoordPointer;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+import java.nio.FloatBuffer;
+
+/**
+ * <p>Static block geometry of a Chunk, stored in a vertex buffer object.</p>
+ * <p>Every vertex consists of {@link #FLOATS_PER_VERTEX} floats:
+ * the chunk-space pixel position (x, y), the texture coordinates on
+ * the block atlas (u, v) and the layer (0 for foreground, 1 for background),
+ * which is passed as third texture coordinate.</p>
+ * <p>The mesh does not contain any light, so it only has to
+ * be rebuilt, when blocks change.</p>
+ * @see BlockShader
+ * @see LightTexture
+ */
+public class ChunkMesh {
+
+	public static final int FLOATS_PER_VERTEX = 5;
+	private static final int STRIDE = FLOATS_PER_VERTEX * 4;
+
+	private final int vbo;
+	private int vertices;
+
+	public ChunkMesh() {
+		vbo = glGenBuffers();
+		vertices = 0;
+	}
+
+	/**
+	 * Replaces the geometry of this mesh.
+	 * @param data the vertex data, from the buffer's position to its limit.
+	 */
+	public void upload(FloatBuffer data) {
+		vertices = data.remaining() / FLOATS_PER_VERTEX;
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glBufferData(GL_ARRAY_BUFFER, data, GL_STATIC_DRAW);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+	}
+
+	public void render() {
+		if (vertices == 0) {
+			return;
+		}
+		glBindBuffer(GL_ARRAY_BUFFER, vbo);
+		glEnableClientState(GL_VERTEX_ARRAY);
+		glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+		glVertexPointer(2, GL_FLOAT, STRIDE, 0);
+		glTexCoordPointer(3, GL_FLOAT, STRIDE, 2 * 4);
+
+		glDrawArrays(GL_QUADS, 0, vertices);
+
+		glDisableClientState(GL_VERTEX_ARRAY);
+		glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+		glBindBuffer(GL_ARRAY_BUFFER, 0);
+	}
+
+	public void delete() {
+		glDeleteBuffers(vbo);
+		vertices = 0;
+	}
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.client.util.opengl;
+
+import static org.lwjgl.opengl.GL11.GL_FALSE;
+import static org.lwjgl.opengl.GL20.GL_COMPILE_STATUS;
+import static org.lwjgl.opengl.GL20.GL_FRAGMENT_SHADER;
+import static org.lwjgl.opengl.GL20.GL_LINK_STATUS;
+import static org.lwjgl.opengl.GL20.GL_VERTEX_SHADER;
+import static org.lwjgl.opengl.GL20.glAttachShader;
+import static org.lwjgl.opengl.GL20.glCompileShader;
+import static org.lwjgl.opengl.GL20.glCreateProgram;
+import static org.lwjgl.opengl.GL20.glCreateShader;
+import static org.lwjgl.opengl.GL20.glDeleteProgram;
+import static org.lwjgl.opengl.GL20.glDeleteShader;
+import static org.lwjgl.opengl.GL20.glGetProgramInfoLog;
+import static org.lwjgl.opengl.GL20.glGetProgrami;
+import static org.lwjgl.opengl.GL20.glGetShaderInfoLog;
+import static org.lwjgl.opengl.GL20.glGetShaderi;
+import static org.lwjgl.opengl.GL20.glGetUniformLocation;
+import static org.lwjgl.opengl.GL20.glLinkProgram;
+import static org.lwjgl.opengl.GL20.glShaderSource;
+import static org.lwjgl.opengl.GL20.glUseProgram;
+
+/**
+ * <p>A GLSL program made of one vertex and one fragment shader.</p>
+ * <p>Needs OpenGL 2.0.</p>
+ * @author matheusdev
+ *
+ */
+public class ShaderProgram {
+
+	private static final int LOG_LENGTH = 4096;
+
+	private final int program;
+
+	/**
+	 * Compiles and links a new ShaderProgram.
+	 * @param vertexSource the GLSL source of the vertex shader.
+	 * @param fragmentSource the GLSL source of the fragment shader.
+	 * @throws IllegalStateException if the shaders could not be compiled or linked.
+	 */
+	public ShaderProgram(String vertexSource, String fragmentSource) {
+		int vertex = compile(GL_VERTEX_SHADER, vertexSource);
+		int fragment = compile(GL_FRAGMENT_SHADER, fragmentSource);
+		program = glCreateProgram();
+		glAttachShader(program, vertex);
+		glAttachShader(program, fragment);
+		glLinkProgram(program);
+		// The shaders are kept alive by the program:
+		glDeleteShader(vertex);
+		glDeleteShader(fragment);
+		if (glGetProgrami(program, GL_LINK_STATUS) == GL_FALSE) {
+			String log = glGetProgramInfoLog(program, LOG_LENGTH);
+			glDeleteProgram(program);
+			throw new IllegalStateException("Could not link shader program:\n" + log);
+		}
+	}
+
+	private static int compile(int type, String source) {
+		int shader = glCreateShader(type);
+		glShaderSource(shader, source);
+		glCompileShader(shader);
+		if (glGetShaderi(shader, GL_COMPILE_STATUS) == GL_FALSE) {
+			String log = glGetShaderInfoLog(shader, LOG_LENGTH);
+			glDeleteShader(shader);
+			throw new IllegalStateException("Could not compile "
+					+ (type == GL_VERTEX_SHADER ? "vertex" : "fragment") + " shader:\n" + log);
+		}
+		return shader;
+	}
+
+	/**
+	 * @param name the name of the uniform variable.
+	 * @return the location of the uniform, or -1, if the program
+	 * does not have an (active) uniform with that name.
+	 */
+	public int getUniform(String name) {
+		return glGetUniformLocation(program, name);
+	}
+
+	/**
+	 * Makes this program the current program.
+	 */
+	public void use() {
+		glUseProgram(program);
+	}
+
+	/**
+	 * Switches back to the fixed function pipeline.
+	 */
+	public static void useNone() {
+		glUseProgram(0);
+	}
+
+	public void delete() {
+		glDeleteProgram(program);
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.server;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.chunks.World;
+import org.worldOfCube.client.logic.chunks.WorldSaver;
+import org.worldOfCube.client.util.Rand;
+import org.worldOfCube.client.util.Timer;
+import org.worldOfCube.client.util.WorkerPool;
+
+/**
+ * <p>Generates a world without a display and saves it to the
+ * worlds directory, so worlds can be pre-generated on build servers.</p>
+ * <p>Usage: <tt>GenerateWorldMain &lt;name&gt; [seed] [chunks] [chunk size]</tt></p>
+ * <p>The seed is parsed like in the world creation screen, so
+ * the same seed gives the same world in both.</p>
+ * @author matheusdev
+ *
+ */
+public class GenerateWorldMain {
+
+	public static final int DEFAULT_CHUNKS = 32;
+	public static final int DEFAULT_CHUNK_SIZE = 64;
+	/** Chunk-space positions are stored in bytes. */
+	public static final int MAX_CHUNK_SIZE = Byte.MAX_VALUE;
+
+	public static void main(String[] args) {
+		if (args.length < 1 || args.length > 4) {
+			exitWithUsage();
+		}
+		String name = args[0];
+		long seed = args.length > 1
+				? Rand.parseSeed(args[1])
+				: System.nanoTime() ^ (System.currentTimeMillis() >>> 10);
+		int chunks = DEFAULT_CHUNKS;
+		int chunkSize = DEFAULT_CHUNK_SIZE;
+		try {
+			if (args.length > 2) chunks = Integer.parseInt(args[2]);
+			if (args.length > 3) chunkSize = Integer.parseInt(args[3]);
+		} catch (NumberFormatException e) {
+			exitWithUsage();
+		}
+		if (chunks < 1 || chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+			exitWithUsage();
+		}
+		if (new File(WorldSaver.worldDirStr + "/" + name).exists()) {
+			Log.err("World \"" + name + "\" does already exist.");
+			System.exit(1);
+		}
+
+		Log.out("Generating world \"" + name + "\" with seed " + seed + ": "
+				+ chunks + "x" + chunks + " chunks of " + chunkSize + " blocks, "
+				+ WorkerPool.getParallelism() + " worker threads");
+		Timer t = new Timer().start();
+		World world = new HeadlessWorld(chunks, chunkSize, seed, name);
+		long generation = t.stop();
+		Log.out("Generation took " + generation + " milliseconds");
+
+		t.start();
+		try {
+			WorldSaver.saveWorld(world);
+		} catch (IOException e) {
+			Log.err("Could not save world \"" + name + "\": " + e);
+			System.exit(1);
+		}
+		long saving = t.stop();
+		Log.out("Saving took " + saving + " milliseconds (total: " + (generation + saving) + " milliseconds)");
+	}
+
+	private static void exitWithUsage() {
+		Log.err("Usage: GenerateWorldMain <name> [seed] [chunks (default " + DEFAULT_CHUNKS
+				+ ")] [chunk size (default " + DEFAULT_CHUNK_SIZE + ", max " + MAX_CHUNK_SIZE + ")]");
+		System.exit(1);
+	}
+
+}
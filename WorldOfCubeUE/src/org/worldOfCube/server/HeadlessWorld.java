@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.server;
+
+import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.chunks.World;
+
+/**
+ * <p>A World without display, light or players, used to generate
+ * worlds on machines without OpenGL.</p>
+ * <p>While generating, the chunk creation progress is logged
+ * every second.</p>
+ * @author matheusdev
+ *
+ */
+public class HeadlessWorld extends World {
+
+	public static final long PROGRESS_INTERVAL = 1000;
+
+	/**
+	 * @see World#World(int, int, long, String)
+	 */
+	public HeadlessWorld(int numChunks, int chunkSize, long seed, String name) {
+		super(numChunks, chunkSize, seed, name);
+	}
+
+	@Override
+	public void generateWorld() {
+		Thread progress = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					while (true) {
+						Thread.sleep(PROGRESS_INTERVAL);
+						Log.out("Creating chunks: %.1f %%", cManager.getLoadProgress());
+					}
+				} catch (InterruptedException e) {
+					// Generation finished.
+				}
+			}
+		}, "Generation progress");
+		progress.setDaemon(true);
+		progress.start();
+		try {
+			super.generateWorld();
+		} finally {
+			progress.interrupt();
+		}
+	}
+
+	/**
+	 * Ticks the World, which is done by the game loop otherwise.
+	 * @see World#tick(double)
+	 */
+	@Override
+	public void tick(double d) {
+		super.tick(d);
+	}
+
+	@Override
+	public void render() {
+	}
+
+}
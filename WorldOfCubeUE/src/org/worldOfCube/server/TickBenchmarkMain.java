@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.server;
+
+import java.util.Random;
+
+import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.collision.Rectangle;
+import org.worldOfCube.client.logic.entity.DropStore;
+import org.worldOfCube.client.logic.entity.EntityPlayer;
+import org.worldOfCube.client.logic.inventory.Item;
+import org.worldOfCube.client.util.WorkerPool;
+import org.worldOfCube.client.util.debug.Allocations;
+import org.worldOfCube.client.util.debug.PerfMonitor;
+
+/**
+ * <p>Checks, that the World tick allocates nothing in steady state, headless.</p>
+ * <p>Generates a small World with a player, who is not controlled by input and
+ * whose inventory is full, and spawns drops around the player, which are not
+ * merged. So every tick ticks the player, moves and attracts drops, and tries
+ * to let the player collect the drops next to it. After warming up, it measures
+ * the bytes allocated per tick, by the calling Thread and the {@link WorkerPool},
+ * once with fewer drops than {@link DropStore#PARALLEL_DROPS} (one Thread) and
+ * once with more (the parallel phases run on the pool).</p>
+ * <p>Exits with status 1, if the ticks allocated at least
+ * {@link #MAX_BYTES_PER_TICK} bytes per tick. Something allocated every
+ * tick takes at least 16 bytes, but the JVM allocates a few hundred bytes
+ * now and then (reading the counters of other Threads, the fork/join pool
+ * waking a worker), which are not garbage of the tick.</p>
+ * <p>Usage: <tt>TickBenchmarkMain [ticks]</tt></p>
+ * @author matheusdev
+ *
+ */
+public class TickBenchmarkMain {
+
+	public static final int DEFAULT_TICKS = 2000;
+	public static final int WARMUP_TICKS = 500;
+	public static final double TICK_TIME = 1.0 / 60.0;
+	public static final long SEED = 0;
+	/** The drops are spawned within this distance in pixels around the player. */
+	public static final int DROP_SPREAD = 256;
+	/** Allocating this many bytes per tick on average counts as allocating in steady state. */
+	public static final double MAX_BYTES_PER_TICK = 1.0;
+
+	private static final int[] ITEMS = {
+		Item.EARTH, Item.GRASS, Item.ROCK, Item.LIGHTSTONE, Item.TREEWOOD, Item.LEAVES, Item.WOOD
+	};
+
+	public static void main(String[] args) {
+		int ticks = DEFAULT_TICKS;
+		try {
+			if (args.length > 0) ticks = Integer.parseInt(args[0]);
+		} catch (NumberFormatException e) {
+			exitWithUsage();
+		}
+		if (args.length > 1 || ticks < 1) {
+			exitWithUsage();
+		}
+		if (!Allocations.isSupported()) {
+			Log.err("Allocations can't be measured on this JVM.");
+			System.exit(1);
+		}
+		// The profiler reads allocation counters, which allocates on some JVMs:
+		PerfMonitor.setEnabled(false);
+
+		HeadlessWorld world = new HeadlessWorld(8, 32, SEED, "benchmark");
+		world.getDrops().setMergeRadius(0);
+		Rectangle spawn = world.findSpawnPosition(EntityPlayer.WIDTH, EntityPlayer.HEIGHT);
+		EntityPlayer player = new EntityPlayer(spawn.x, spawn.y, "benchmark");
+		player.setControlled(false);
+		// Fill the inventory, so the drops stay and are attracted every tick:
+		int left;
+		do {
+			left = player.collect(Item.EARTH, Item.getStackable(Item.EARTH));
+		} while (left == 0);
+		world.addEntity(player);
+
+		Log.out("%d worker threads", WorkerPool.getParallelism());
+		boolean allocated = false;
+		allocated |= measure(world, player, DropStore.PARALLEL_DROPS / 2, ticks);
+		allocated |= measure(world, player, DropStore.PARALLEL_DROPS * 3, ticks);
+		if (allocated) {
+			Log.err("The tick allocates in steady state.");
+			System.exit(1);
+		}
+		Log.out("The tick allocates nothing in steady state.");
+	}
+
+	/**
+	 * @return whether the ticks allocated at least {@link #MAX_BYTES_PER_TICK} bytes per tick.
+	 */
+	private static boolean measure(HeadlessWorld world, EntityPlayer player, int drops, int ticks) {
+		Random rand = new Random(SEED);
+		world.getDrops().clear();
+		for (int i = 0; i < drops; i++) {
+			world.spawnDrop(ITEMS[i % ITEMS.length],
+					player.midx() + (rand.nextDouble() * 2 - 1) * DROP_SPREAD,
+					player.midy() - rand.nextDouble() * DROP_SPREAD);
+		}
+		for (int i = 0; i < WARMUP_TICKS; i++) {
+			world.tick(TICK_TIME);
+		}
+
+		// What measuring itself allocates:
+		long overhead = Allocations.allocatedBytes();
+		overhead = Allocations.allocatedBytes() - overhead;
+
+		long bytes = Allocations.allocatedBytes();
+		long nanos = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			world.tick(TICK_TIME);
+		}
+		nanos = System.nanoTime() - nanos;
+		bytes = Allocations.allocatedBytes() - bytes - overhead;
+
+		int asleep = 0;
+		for (int i = 0; i < world.getDrops().size(); i++) {
+			if (world.getDrops().isAsleep(i)) {
+				asleep++;
+			}
+		}
+		Log.out("%d drops (%d left, %d asleep), %d ticks: %.1f bytes and %.1f microseconds per tick",
+				drops, world.getDrops().size(), asleep, ticks, (double) bytes / ticks, nanos / 1000.0 / ticks);
+		return (double) bytes / ticks >= MAX_BYTES_PER_TICK;
+	}
+
+	private static void exitWithUsage() {
+		Log.err("Usage: TickBenchmarkMain [ticks (default " + DEFAULT_TICKS + ")]");
+		System.exit(1);
+	}
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 matheusdev
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to
+ * deal in the Software without restriction, including without limitation the
+ * rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+ * sell copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.worldOfCube.server;
+
+import org.worldOfCube.Log;
+import org.worldOfCube.client.logic.chunks.World;
+import org.worldOfCube.client.util.Timer;
+import org.worldOfCube.client.util.WorkerPool;
+
+/**
+ * <p>Checks, that world generation is reproducible: Generates a world with a
+ * fixed seed and size once with a single worker thread and once with several,
+ * and compares their {@link org.worldOfCube.client.logic.chunks.ChunkManager#digest()
+ * digests}, which must not depend on the number of threads.</p>
+ * <p>The digest is printed. If it is given as argument, the generated digest
+ * must equal it, too. That catches unintended changes to the generation, but
+ * the digest also depends on the noise library, so it's only meaningful with
+ * the same version of it.</p>
+ * <p>Exits with status 1, if any digest differs, so build servers can run it
+ * after changes to the generation.</p>
+ * <p>Usage: <tt>WorldDigestCheckMain [expected digest in hex]</tt></p>
+ * @author matheusdev
+ *
+ */
+public class WorldDigestCheckMain {
+
+	public static final long SEED = 1551;
+	public static final int CHUNKS = 8;
+	public static final int CHUNK_SIZE = 64;
+
+	public static void main(String[] args) {
+		String expected = null;
+		if (args.length == 1) {
+			expected = args[0].toLowerCase();
+		} else if (args.length != 0) {
+			Log.err("Usage: WorldDigestCheckMain [expected digest in hex]");
+			System.exit(1);
+		}
+
+		int[] parallelisms = { 1, Math.max(2, Runtime.getRuntime().availableProcessors()) };
+		String[] digests = new String[parallelisms.length];
+		for (int i = 0; i < parallelisms.length; i++) {
+			digests[i] = generate(parallelisms[i]);
+		}
+
+		boolean failed = false;
+		for (int i = 1; i < parallelisms.length; i++) {
+			if (!digests[i].equals(digests[0])) {
+				Log.err("Digest with " + parallelisms[i] + " worker threads (" + digests[i]
+						+ ") differs from the digest with " + parallelisms[0] + " (" + digests[0] + ").");
+				failed = true;
+			}
+		}
+		if (expected != null && !expected.equals(digests[0])) {
+			Log.err("Digest " + digests[0] + " differs from the expected digest " + expected + ".");
+			failed = true;
+		}
+		if (failed) {
+			System.exit(1);
+		}
+		Log.out("World generation is reproducible, digest: " + digests[0]);
+	}
+
+	private static String generate(int parallelism) {
+		WorkerPool.setParallelism(parallelism);
+		Timer t = new Timer().start();
+		World world = new HeadlessWorld(CHUNKS, CHUNK_SIZE, SEED, "digest check");
+		String digest = Long.toHexString(world.getChunkManager().digest());
+		Log.out("Digest with " + parallelism + " worker threads: " + digest + " (" + t.stop() + " ms)");
+		return digest;
+	}
+
+}